@@ -17,6 +17,7 @@
 package com.mygdx.game;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Screen;
 import com.mygdx.game.screens.GameScreen;
 import com.mygdx.game.utils.Assets;
 
@@ -25,7 +26,14 @@ public class MyGdxGame extends Game {
     @Override
     public void create() {
         Assets.instance.init();
-        setScreen(new GameScreen(this));
+        setScreen(createGameScreen());
+    }
+
+    /**
+     * Launchers that can run threads override this to step the simulation on a thread of its own.
+     */
+    protected Screen createGameScreen() {
+        return new GameScreen(this);
     }
 
     @Override
@@ -17,14 +17,16 @@
 package com.mygdx.game.components;
 
 import com.badlogic.ashley.core.Component;
-import com.badlogic.gdx.physics.box2d.Contact;
-import com.badlogic.gdx.utils.Array;
 import com.mygdx.game.utils.Direction;
+import com.mygdx.game.utils.FixtureData;
+import com.mygdx.game.utils.GroundContacts;
 
 public class CharacterComponent implements Component {
 
     public Direction viewDirection = Direction.RIGHT;
 
-    public Array<Contact> footContacts = new Array<Contact>();
-    public float footContactsCount = 0;
+    public GroundContacts groundContacts = new GroundContacts();
+
+    // shared by the character's solid fixtures, its material follows the character's state
+    public FixtureData bodyData;
 }
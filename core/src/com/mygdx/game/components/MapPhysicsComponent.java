@@ -0,0 +1,38 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Array;
+import com.mygdx.game.utils.MapPhysicsChunk;
+
+public class MapPhysicsComponent implements Component {
+
+    public float originX;
+    public float originY;
+    public float chunkSize;
+    public int columns;
+    public int rows;
+    // how far the bounds of any chunk reach past its cell
+    public float overhang;
+
+    // row major, columns * rows
+    public MapPhysicsChunk[] chunks;
+
+    // chunks that currently own a body, active or not
+    public Array<MapPhysicsChunk> liveChunks = new Array<MapPhysicsChunk>(false, 16);
+}
@@ -17,9 +17,20 @@
 package com.mygdx.game.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
+import com.mygdx.game.utils.BodyPrefab;
 
 public class PhysicsComponent implements Component {
 
     public Body body;
+    // prefab the body was obtained from, such bodies go back to the world's BodyPool
+    public BodyPrefab prefab;
+
+    // set while the body is deactivated for being far from every camera, with the state it had at that moment
+    public boolean dormant = false;
+    public Vector2 dormantPosition = new Vector2();
+    public float dormantAngle = 0;
+    public Vector2 dormantLinearVelocity = new Vector2();
+    public float dormantAngularVelocity = 0;
 }
@@ -20,10 +20,15 @@ import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.ai.fsm.DefaultStateMachine;
 import com.mygdx.game.systems.PlayerSystem;
+import com.mygdx.game.utils.GdxKeyInput;
+import com.mygdx.game.utils.KeyInput;
 
 public class PlayerComponent implements Component {
 
     public DefaultStateMachine<Entity, PlayerSystem.PlayerState> stateMachine =
             new DefaultStateMachine<Entity, PlayerSystem.PlayerState>();
 
+    // keys the states read, assigned by PlayerSystem
+    public KeyInput input = GdxKeyInput.instance;
+
 }
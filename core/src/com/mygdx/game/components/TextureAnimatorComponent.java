@@ -19,14 +19,20 @@ package com.mygdx.game.components;
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.utils.ObjectMap;
 
 public class TextureAnimatorComponent implements Component {
 
-    public ObjectMap<Enum, Animation<TextureRegion>> animations;
+    // indexed by the ordinal of the animation names, all of one enum
+    public Animation<TextureRegion>[] animations;
 
     public Enum currentAnimation;
 
     public float animationTime;
     public boolean freeze;
+
+    // kept by the animator system: the frame on display and the animation time span it is shown for
+    public Enum shownAnimation;
+    public int frameIndex = -1;
+    public float frameStartTime;
+    public float frameEndTime;
 }
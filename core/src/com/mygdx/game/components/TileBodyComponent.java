@@ -0,0 +1,39 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.math.Vector2;
+import com.mygdx.game.utils.SurfaceMaterial;
+
+/**
+ * Box moved against a {@link com.mygdx.game.utils.TileCollisionGrid} instead of a Box2D body.
+ */
+public class TileBodyComponent implements Component {
+
+    public float halfWidth;
+    public float halfHeight;
+    // center of the box relative to the entity's position
+    public float offsetY;
+
+    public Vector2 velocity = new Vector2();
+    // cleared after every step
+    public Vector2 acceleration = new Vector2();
+    public SurfaceMaterial material = SurfaceMaterial.CHARACTER_STAND;
+
+    public boolean grounded;
+}
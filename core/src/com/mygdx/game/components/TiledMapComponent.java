@@ -18,8 +18,11 @@ package com.mygdx.game.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.mygdx.game.utils.TiledMapCache;
 
 public class TiledMapComponent implements Component {
 
     public OrthogonalTiledMapRenderer renderer;
+    // draws the tile layers, the renderer only draws the others
+    public TiledMapCache cache;
 }
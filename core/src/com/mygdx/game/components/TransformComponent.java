@@ -24,4 +24,9 @@ public class TransformComponent implements Component {
     public Vector2 position = new Vector2();
     public Vector2 scale = new Vector2(1f, 1f);
     public float angle = 0;
+
+    // state at the previous fixed step, used to interpolate rendering between steps
+    public Vector2 previousPosition = new Vector2();
+    public float previousAngle = 0;
+    public boolean interpolate = false;
 }
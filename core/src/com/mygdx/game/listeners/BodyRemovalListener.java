@@ -18,15 +18,27 @@ package com.mygdx.game.listeners;
 
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.EntityListener;
-import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.utils.Array;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.utils.BodyPool;
+import com.mygdx.game.utils.FixtureData;
 import com.mygdx.game.utils.Mappers;
 
 public class BodyRemovalListener implements EntityListener {
 
-    private final World world;
+    private final Array<BodyPool> bodyPools;
 
-    public BodyRemovalListener(World world) {
-        this.world = world;
+    public BodyRemovalListener(BodyPool bodyPool) {
+        this(Array.with(bodyPool));
+    }
+
+    /**
+     * For bodies spread over several worlds, each body goes back to the pool of the world it is in.
+     */
+    public BodyRemovalListener(Array<BodyPool> bodyPools) {
+        this.bodyPools = bodyPools;
     }
 
     @Override
@@ -35,6 +47,31 @@ public class BodyRemovalListener implements EntityListener {
 
     @Override
     public void entityRemoved(Entity entity) {
-        world.destroyBody(Mappers.physics.get(entity).body);
+        PhysicsComponent physics = Mappers.physics.get(entity);
+        Body body = physics.body;
+
+        // contacts ended by the destruction are dispatched later, when the entity may already be reused
+        Array<Fixture> fixtures = body.getFixtureList();
+        for (int i = 0; i < fixtures.size; ++i) {
+            FixtureData data = (FixtureData) fixtures.get(i).getUserData();
+            if (data != null) {
+                data.entity = null;
+            }
+        }
+        final BodyPool bodyPool = (physics.prefab != null) ? getBodyPool(body) : null;
+        if (bodyPool != null) {
+            bodyPool.free(physics.prefab, body);
+        } else {
+            body.getWorld().destroyBody(body);
+        }
+    }
+
+    private BodyPool getBodyPool(Body body) {
+        for (int i = 0; i < bodyPools.size; ++i) {
+            if (bodyPools.get(i).getWorld() == body.getWorld()) {
+                return bodyPools.get(i);
+            }
+        }
+        return null;
     }
 }
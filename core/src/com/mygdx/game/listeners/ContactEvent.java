@@ -0,0 +1,44 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.listeners;
+
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.mygdx.game.utils.FixtureData;
+
+/**
+ * A buffered contact, ordered so that {@link #dataA} has the first type the handler was registered with.
+ * The fixtures may already be destroyed when an end event is dispatched, only touch their native side for begin events.
+ */
+public class ContactEvent {
+
+    public Fixture fixtureA;
+    public Fixture fixtureB;
+    public FixtureData dataA;
+    public FixtureData dataB;
+    // chain edge touched on each side, only recorded for begin events
+    public int childIndexA;
+    public int childIndexB;
+
+    void set(Fixture fixtureA, FixtureData dataA, int childIndexA, Fixture fixtureB, FixtureData dataB, int childIndexB) {
+        this.fixtureA = fixtureA;
+        this.dataA = dataA;
+        this.childIndexA = childIndexA;
+        this.fixtureB = fixtureB;
+        this.dataB = dataB;
+        this.childIndexB = childIndexB;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.listeners;
+
+/**
+ * Receives the contacts of one fixture type pair, after the world step that produced them.
+ * The event is reused, copy what you need to keep.
+ */
+public interface ContactHandler {
+
+    void beginContact(ContactEvent event);
+
+    void endContact(ContactEvent event);
+}
@@ -0,0 +1,45 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.listeners;
+
+import com.badlogic.gdx.math.Vector2;
+import com.mygdx.game.components.CharacterComponent;
+import com.mygdx.game.utils.Mappers;
+
+public class FootSensorContactHandler implements ContactHandler {
+
+    private final Vector2 normal = new Vector2();
+
+    @Override
+    public void beginContact(ContactEvent event) {
+        if (event.dataA.entity == null) {
+            return;
+        }
+        CharacterComponent character = Mappers.character.get(event.dataA.entity);
+        event.dataB.getEdgeNormal(event.childIndexB, normal);
+        character.groundContacts.add(event.dataB, event.childIndexB, event.fixtureB.getBody(), normal.x, normal.y);
+    }
+
+    @Override
+    public void endContact(ContactEvent event) {
+        if (event.dataA.entity == null) {
+            return;
+        }
+        CharacterComponent character = Mappers.character.get(event.dataA.entity);
+        character.groundContacts.remove(event.dataB, event.childIndexB);
+    }
+}
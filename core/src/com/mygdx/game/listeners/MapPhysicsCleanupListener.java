@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.listeners;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.gdx.physics.box2d.World;
+import com.mygdx.game.components.MapPhysicsComponent;
+import com.mygdx.game.utils.ChunkBodies;
+import com.mygdx.game.utils.MapPhysicsChunk;
+import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.WorldChunkBodies;
+
+public class MapPhysicsCleanupListener implements EntityListener {
+
+    private final ChunkBodies chunkBodies;
+
+    public MapPhysicsCleanupListener(World world) {
+        this(new WorldChunkBodies(world));
+    }
+
+    public MapPhysicsCleanupListener(ChunkBodies chunkBodies) {
+        this.chunkBodies = chunkBodies;
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
+    }
+
+    @Override
+    public void entityRemoved(Entity entity) {
+        MapPhysicsComponent mapPhysics = Mappers.mapPhysics.get(entity);
+        for (int i = 0; i < mapPhysics.liveChunks.size; ++i) {
+            MapPhysicsChunk chunk = mapPhysics.liveChunks.get(i);
+            chunkBodies.destroy(chunk);
+            chunk.live = false;
+            chunk.active = false;
+        }
+        mapPhysics.liveChunks.clear();
+    }
+}
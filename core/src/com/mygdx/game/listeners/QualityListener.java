@@ -0,0 +1,30 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.listeners;
+
+import com.mygdx.game.utils.QualityTier;
+
+/**
+ * Notified by the {@link com.mygdx.game.systems.QualitySystem} after it switched to another tier.
+ */
+public interface QualityListener {
+
+    /**
+     * @param frameMillis frame time percentile that caused the change
+     */
+    void qualityChanged(QualityTier previous, QualityTier current, float frameMillis);
+}
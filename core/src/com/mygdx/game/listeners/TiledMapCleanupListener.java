@@ -18,6 +18,7 @@ package com.mygdx.game.listeners;
 
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.EntityListener;
+import com.mygdx.game.components.TiledMapComponent;
 import com.mygdx.game.utils.Mappers;
 
 public class TiledMapCleanupListener implements EntityListener {
@@ -28,6 +29,10 @@ public class TiledMapCleanupListener implements EntityListener {
 
     @Override
     public void entityRemoved(Entity entity) {
-        Mappers.tiledMap.get(entity).renderer.dispose();
+        TiledMapComponent tiledMap = Mappers.tiledMap.get(entity);
+        tiledMap.renderer.dispose();
+        if (tiledMap.cache != null) {
+            tiledMap.cache.dispose();
+        }
     }
 }
@@ -17,38 +17,225 @@
 package com.mygdx.game.listeners;
 
 import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.mygdx.game.utils.FixtureData;
+import com.mygdx.game.utils.FixtureType;
+import com.mygdx.game.utils.MaterialTable;
 
+/**
+ * Records begin and end contacts into a preallocated buffer while Box2D is stepping, {@link #dispatch()} then hands
+ * them to the handlers registered for their fixture type pair. Handlers run outside the step so they are free to
+ * create and destroy bodies.
+ * <p>
+ * Fixture user data must be a {@link FixtureData} or null, fixtures without data are never dispatched. Contacts
+ * between two fixtures with a {@link FixtureData#material} get their friction and restitution from the
+ * {@link MaterialTable} before every solve.
+ */
 public class WorldContactListener implements ContactListener {
 
-    @Override
-    public void beginContact(Contact contact) {
-        Fixture fixtureA = contact.getFixtureA();
-        Fixture fixtureB = contact.getFixtureB();
+    private static final int INITIAL_CAPACITY = 256;
+    private static final FixtureType[] FIXTURE_TYPES = FixtureType.values();
+
+    private final ContactHandler[][] handlers = new ContactHandler[FIXTURE_TYPES.length][FIXTURE_TYPES.length];
+    private final boolean[][] swapped = new boolean[FIXTURE_TYPES.length][FIXTURE_TYPES.length];
+
+    private final ContactEvent event = new ContactEvent();
+    private final MaterialTable materials;
+
+    private boolean[] begins = new boolean[INITIAL_CAPACITY];
+    private Fixture[] fixturesA = new Fixture[INITIAL_CAPACITY];
+    private Fixture[] fixturesB = new Fixture[INITIAL_CAPACITY];
+    private FixtureData[] dataA = new FixtureData[INITIAL_CAPACITY];
+    private FixtureData[] dataB = new FixtureData[INITIAL_CAPACITY];
+    private int[] childIndicesA = new int[INITIAL_CAPACITY];
+    private int[] childIndicesB = new int[INITIAL_CAPACITY];
+    private int count;
+
+    private boolean timingEnabled;
+    private long timedNanos;
+
+    public void register(FixtureType typeA, FixtureType typeB, ContactHandler handler) {
+        handlers[typeA.ordinal()][typeB.ordinal()] = handler;
+        swapped[typeA.ordinal()][typeB.ordinal()] = false;
+        if (typeA != typeB) {
+            handlers[typeB.ordinal()][typeA.ordinal()] = handler;
+            swapped[typeB.ordinal()][typeA.ordinal()] = true;
+        }
+    }
+
+    public WorldContactListener() {
+        this(new MaterialTable());
+    }
+
+    /**
+     * @param materials table to look up surface pairs in, may be shared with other listeners
+     */
+    public WorldContactListener(MaterialTable materials) {
+        this.materials = materials;
+    }
 
-        if (fixtureA.getUserData() instanceof FixtureData) {
-            ((FixtureData) fixtureA.getUserData()).beginContact(contact);
+    /**
+     * Copies all handler registrations of the other listener.
+     */
+    public void registerAll(WorldContactListener other) {
+        for (int i = 0; i < FIXTURE_TYPES.length; ++i) {
+            System.arraycopy(other.handlers[i], 0, handlers[i], 0, FIXTURE_TYPES.length);
+            System.arraycopy(other.swapped[i], 0, swapped[i], 0, FIXTURE_TYPES.length);
         }
-        if (fixtureB.getUserData() instanceof FixtureData) {
-            ((FixtureData) fixtureB.getUserData()).beginContact(contact);
+    }
+
+    public MaterialTable getMaterials() {
+        return materials;
+    }
+
+    /**
+     * Measures the time spent in callbacks and {@link #dispatch()}, costs two clock reads per callback.
+     */
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
+    /**
+     * Returns the measured time since the last call and starts over.
+     */
+    public long takeTimedNanos() {
+        final long nanos = timedNanos;
+        timedNanos = 0;
+        return nanos;
+    }
+
+    @Override
+    public void beginContact(Contact contact) {
+        if (timingEnabled) {
+            final long startTime = TimeUtils.nanoTime();
+            record(contact, true);
+            timedNanos += TimeUtils.nanoTime() - startTime;
+        } else {
+            record(contact, true);
         }
     }
 
     @Override
     public void endContact(Contact contact) {
+        if (timingEnabled) {
+            final long startTime = TimeUtils.nanoTime();
+            record(contact, false);
+            timedNanos += TimeUtils.nanoTime() - startTime;
+        } else {
+            record(contact, false);
+        }
+    }
+
+    private void record(Contact contact, boolean begin) {
+        if (count == begins.length) {
+            grow();
+        }
         Fixture fixtureA = contact.getFixtureA();
         Fixture fixtureB = contact.getFixtureB();
 
-        if (fixtureA.getUserData() instanceof FixtureData) {
-            ((FixtureData) fixtureA.getUserData()).endContact(contact);
+        begins[count] = begin;
+        fixturesA[count] = fixtureA;
+        fixturesB[count] = fixtureB;
+        dataA[count] = (FixtureData) fixtureA.getUserData();
+        dataB[count] = (FixtureData) fixtureB.getUserData();
+        childIndicesA[count] = contact.getChildIndexA();
+        childIndicesB[count] = contact.getChildIndexB();
+        count++;
+    }
+
+    private void grow() {
+        final int capacity = begins.length * 2;
+
+        boolean[] newBegins = new boolean[capacity];
+        System.arraycopy(begins, 0, newBegins, 0, count);
+        begins = newBegins;
+
+        Fixture[] newFixtures = new Fixture[capacity];
+        System.arraycopy(fixturesA, 0, newFixtures, 0, count);
+        fixturesA = newFixtures;
+
+        newFixtures = new Fixture[capacity];
+        System.arraycopy(fixturesB, 0, newFixtures, 0, count);
+        fixturesB = newFixtures;
+
+        FixtureData[] newData = new FixtureData[capacity];
+        System.arraycopy(dataA, 0, newData, 0, count);
+        dataA = newData;
+
+        newData = new FixtureData[capacity];
+        System.arraycopy(dataB, 0, newData, 0, count);
+        dataB = newData;
+
+        int[] newIndices = new int[capacity];
+        System.arraycopy(childIndicesA, 0, newIndices, 0, count);
+        childIndicesA = newIndices;
+
+        newIndices = new int[capacity];
+        System.arraycopy(childIndicesB, 0, newIndices, 0, count);
+        childIndicesB = newIndices;
+    }
+
+    /**
+     * Hands the buffered contacts to their handlers. Contacts recorded by the handlers themselves, e.g. by destroying
+     * a body, are dispatched in the same call.
+     */
+    public void dispatch() {
+        final long startTime = timingEnabled ? TimeUtils.nanoTime() : 0;
+        for (int i = 0; i < count; ++i) {
+            final FixtureData a = dataA[i];
+            final FixtureData b = dataB[i];
+            if (a == null || b == null) {
+                continue;
+            }
+
+            final int typeA = a.type.ordinal();
+            final int typeB = b.type.ordinal();
+            final ContactHandler handler = handlers[typeA][typeB];
+            if (handler == null) {
+                continue;
+            }
+
+            if (swapped[typeA][typeB]) {
+                event.set(fixturesB[i], b, childIndicesB[i], fixturesA[i], a, childIndicesA[i]);
+            } else {
+                event.set(fixturesA[i], a, childIndicesA[i], fixturesB[i], b, childIndicesB[i]);
+            }
+
+            if (begins[i]) {
+                handler.beginContact(event);
+            } else {
+                handler.endContact(event);
+            }
+        }
+
+        for (int i = 0; i < count; ++i) {
+            fixturesA[i] = null;
+            fixturesB[i] = null;
+            dataA[i] = null;
+            dataB[i] = null;
         }
-        if (fixtureB.getUserData() instanceof FixtureData) {
-            ((FixtureData) fixtureB.getUserData()).endContact(contact);
+        count = 0;
+        event.set(null, null, 0, null, null, 0);
+
+        if (timingEnabled) {
+            timedNanos += TimeUtils.nanoTime() - startTime;
         }
     }
 
     @Override
     public void preSolve(Contact contact, Manifold oldManifold) {
+        final long startTime = timingEnabled ? TimeUtils.nanoTime() : 0;
+        final FixtureData a = (FixtureData) contact.getFixtureA().getUserData();
+        final FixtureData b = (FixtureData) contact.getFixtureB().getUserData();
+
+        if (a != null && b != null && a.material != null && b.material != null) {
+            contact.setFriction(materials.getFriction(a.material, b.material));
+            contact.setRestitution(materials.getRestitution(a.material, b.material));
+        }
+
+        if (timingEnabled) {
+            timedNanos += TimeUtils.nanoTime() - startTime;
+        }
     }
 
     @Override
@@ -0,0 +1,67 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.physics;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.mygdx.game.listeners.WorldContactListener;
+import com.mygdx.game.utils.BodyPool;
+import com.mygdx.game.utils.MapPhysicsChunk;
+
+/**
+ * One cell of a {@link PhysicsRegions} grid with its own world.
+ */
+public class PhysicsRegion implements Runnable {
+
+    public final int index;
+    public final Rectangle bounds;
+    public final World world;
+    public final WorldContactListener contactListener;
+    public final BodyPool bodyPool;
+
+    // bodies of the map chunks that are live in this region
+    final ObjectMap<MapPhysicsChunk, Body> chunkBodies = new ObjectMap<MapPhysicsChunk, Body>();
+
+    // arguments of the step in progress, set before the region is handed to a worker
+    float timeStep;
+    int velocityIterations;
+    int positionIterations;
+
+    PhysicsRegion(int index, Rectangle bounds, Vector2 gravity, WorldContactListener handlers) {
+        this.index = index;
+        this.bounds = bounds;
+        world = new World(gravity, true);
+        contactListener = new WorldContactListener(handlers.getMaterials());
+        contactListener.registerAll(handlers);
+        world.setContactListener(contactListener);
+        bodyPool = new BodyPool(world);
+    }
+
+    @Override
+    public void run() {
+        world.step(timeStep, velocityIterations, positionIterations);
+    }
+
+    void dispose() {
+        chunkBodies.clear();
+        bodyPool.clear();
+        world.dispose();
+    }
+}
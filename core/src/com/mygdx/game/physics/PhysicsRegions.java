@@ -0,0 +1,528 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.physics;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.listeners.WorldContactListener;
+import com.mygdx.game.utils.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Splits a level into a grid of regions, each with its own world, and steps the regions in parallel.
+ * <p>
+ * Every prefab body is owned by the region containing its position. Once it moves further than the handoff margin
+ * out of that region it is recreated in the region it entered, keeping its fixture data, so
+ * {@link PhysicsComponent#body} changes and nothing else does. The old body stays behind as the ghost of the region
+ * it left, still reporting contacts, until the new body has reported its own, so a character stays grounded while
+ * it crosses. Within the ghost margin of a neighbouring region the
+ * body gets a kinematic copy there, moved to the owner's state before every step, so bodies on both sides of a
+ * border collide with each other. Ghosts push but cannot be pushed.
+ * <p>
+ * Map collision is created on demand: pass this to a {@link com.mygdx.game.systems.MapPhysicsSystem}, which gives
+ * a chunk its body in every region the chunk overlaps, ghost margin included, once a camera or a body needs it.
+ * <p>
+ * Contact events are dispatched on the engine's thread. Bodies without a prefab stay in the world they were created
+ * in. Register this as an entity listener for {@link PhysicsComponent}s so bodies are tracked, and free removed
+ * bodies into {@link #getBodyPools()}.
+ */
+public class PhysicsRegions implements PhysicsStepper, ChunkBodies, EntityListener, Disposable {
+
+    public static final String TAG = PhysicsRegions.class.getName();
+
+    private static final float DEFAULT_GHOST_MARGIN = 1f;
+    private static final float DEFAULT_HANDOFF_MARGIN = 0.25f;
+    // an obtained body finds its contacts at the end of its first step and begins them in the second
+    private static final int RETIRE_STEPS = 2;
+
+    private final float originX;
+    private final float originY;
+    private final float regionWidth;
+    private final float regionHeight;
+    private final int columns;
+    private final int rows;
+    private final PhysicsRegion[] regions;
+    private final Array<BodyPool> bodyPools = new Array<BodyPool>();
+
+    private final ExecutorService executor;
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    private final Array<TrackedBody> trackedBodies = new Array<TrackedBody>(false, 16);
+    private final Rectangle ghostBounds = new Rectangle();
+
+    private float ghostMargin = DEFAULT_GHOST_MARGIN;
+    private float handoffMargin = DEFAULT_HANDOFF_MARGIN;
+    private int handoffs;
+
+    private static class TrackedBody {
+        Entity entity;
+        PhysicsComponent physics;
+        int region;
+        Body[] ghosts;
+        // body left behind by the last handoff, see moveTo
+        Body retired;
+        int retiredRegion;
+        int retiredSteps;
+    }
+
+    /**
+     * @param area     part of the level covered by regions, bodies outside belong to the closest region
+     * @param handlers listener whose handler registrations and materials every region copies
+     * @param threads  worker threads, 1 steps all regions on the calling thread
+     */
+    public PhysicsRegions(Vector2 gravity, Rectangle area, int columns, int rows, int threads,
+                          WorldContactListener handlers) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("At least one region is needed: " + columns + " x " + rows);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        originX = area.x;
+        originY = area.y;
+        regionWidth = area.width / columns;
+        regionHeight = area.height / rows;
+        this.columns = columns;
+        this.rows = rows;
+
+        regions = new PhysicsRegion[columns * rows];
+        for (int row = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column) {
+                final int index = row * columns + column;
+                final Rectangle bounds = new Rectangle(originX + column * regionWidth, originY + row * regionHeight,
+                        regionWidth, regionHeight);
+                regions[index] = new PhysicsRegion(index, bounds, gravity, handlers);
+                bodyPools.add(regions[index].bodyPool);
+            }
+        }
+
+        executor = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    /**
+     * Creates the chunk's collision in each region it overlaps, ghost margin included.
+     */
+    @Override
+    public void create(MapPhysicsChunk chunk) {
+        for (PhysicsRegion region : regions) {
+            ghostBounds.set(region.bounds.x - ghostMargin, region.bounds.y - ghostMargin,
+                    region.bounds.width + 2 * ghostMargin, region.bounds.height + 2 * ghostMargin);
+            if (chunk.bounds.overlaps(ghostBounds)) {
+                region.chunkBodies.put(chunk, TiledMapUtils.createChunkBody(region.world, chunk));
+            }
+        }
+    }
+
+    @Override
+    public void setActive(MapPhysicsChunk chunk, boolean active) {
+        for (PhysicsRegion region : regions) {
+            final Body body = region.chunkBodies.get(chunk);
+            if (body != null) {
+                body.setActive(active);
+            }
+        }
+    }
+
+    @Override
+    public void destroy(MapPhysicsChunk chunk) {
+        for (PhysicsRegion region : regions) {
+            final Body body = region.chunkBodies.remove(chunk);
+            if (body != null) {
+                region.world.destroyBody(body);
+            }
+        }
+    }
+
+    @Override
+    public void step(float timeStep, int velocityIterations, int positionIterations) {
+        updateGhosts();
+
+        for (PhysicsRegion region : regions) {
+            region.timeStep = timeStep;
+            region.velocityIterations = velocityIterations;
+            region.positionIterations = positionIterations;
+        }
+        if (executor == null) {
+            for (PhysicsRegion region : regions) {
+                region.run();
+            }
+        } else {
+            stepParallel();
+        }
+
+        handOff();
+    }
+
+    private void stepParallel() {
+        final CountDownLatch finished = new CountDownLatch(regions.length - 1);
+        for (int i = 1; i < regions.length; ++i) {
+            final PhysicsRegion region = regions[i];
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        region.run();
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+        // the calling thread takes the first region instead of idling
+        regions[0].run();
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while stepping regions", e);
+        }
+        if (failure.get() != null) {
+            throw new GdxRuntimeException("Region step failed", failure.get());
+        }
+    }
+
+    @Override
+    public void dispatchContacts() {
+        for (PhysicsRegion region : regions) {
+            region.contactListener.dispatch();
+        }
+    }
+
+    @Override
+    public int getBodyCount() {
+        int count = 0;
+        for (PhysicsRegion region : regions) {
+            count += region.world.getBodyCount();
+        }
+        return count;
+    }
+
+    @Override
+    public int getContactCount() {
+        int count = 0;
+        for (PhysicsRegion region : regions) {
+            count += region.world.getContactCount();
+        }
+        return count;
+    }
+
+    @Override
+    public int getProxyCount() {
+        int count = 0;
+        for (PhysicsRegion region : regions) {
+            count += region.world.getProxyCount();
+        }
+        return count;
+    }
+
+    @Override
+    public void setListenerTimingEnabled(boolean enabled) {
+        for (PhysicsRegion region : regions) {
+            region.contactListener.setTimingEnabled(enabled);
+        }
+    }
+
+    /**
+     * Summed over all regions, so it can exceed the wall time of a parallel step.
+     */
+    @Override
+    public long takeListenerNanos() {
+        long nanos = 0;
+        for (PhysicsRegion region : regions) {
+            nanos += region.contactListener.takeTimedNanos();
+        }
+        return nanos;
+    }
+
+    private void updateGhosts() {
+        for (int i = 0; i < trackedBodies.size; ++i) {
+            final TrackedBody tracked = trackedBodies.get(i);
+            final Body body = tracked.physics.body;
+            final Vector2 position = body.getPosition();
+
+            for (PhysicsRegion region : regions) {
+                if (tracked.retired != null && region.index == tracked.retiredRegion) {
+                    syncGhost(tracked.retired, body);
+                    continue;
+                }
+                Body ghost = tracked.ghosts[region.index];
+                final boolean needed = region.index != tracked.region && isNear(region, position.x, position.y);
+
+                if (!needed) {
+                    if (ghost != null) {
+                        region.world.destroyBody(ghost);
+                        tracked.ghosts[region.index] = null;
+                    }
+                    continue;
+                }
+                if (ghost == null) {
+                    ghost = createGhost(tracked.physics.prefab, region, position.x, position.y);
+                    tracked.ghosts[region.index] = ghost;
+                }
+                syncGhost(ghost, body);
+            }
+        }
+    }
+
+    private static void syncGhost(Body ghost, Body body) {
+        ghost.setTransform(body.getPosition(), body.getAngle());
+        ghost.setLinearVelocity(body.getLinearVelocity());
+        ghost.setAngularVelocity(body.getAngularVelocity());
+    }
+
+    private boolean isNear(PhysicsRegion region, float x, float y) {
+        final Rectangle bounds = region.bounds;
+        return x >= bounds.x - ghostMargin && x <= bounds.x + bounds.width + ghostMargin
+                && y >= bounds.y - ghostMargin && y <= bounds.y + bounds.height + ghostMargin;
+    }
+
+    private Body createGhost(BodyPrefab prefab, PhysicsRegion region, float x, float y) {
+        Body ghost = prefab.create(region.world, x, y, 0);
+        ghost.setType(BodyDef.BodyType.KinematicBody);
+
+        // ghosts are solid for the region's own bodies but never report anything for their owner
+        Array<Fixture> fixtures = ghost.getFixtureList();
+        for (int i = 0; i < fixtures.size; ++i) {
+            Fixture fixture = fixtures.get(i);
+            if (fixture.isSensor()) {
+                fixture.setUserData(null);
+            }
+        }
+        return ghost;
+    }
+
+    private void handOff() {
+        for (int i = 0; i < trackedBodies.size; ++i) {
+            final TrackedBody tracked = trackedBodies.get(i);
+            if (tracked.retired != null && ++tracked.retiredSteps >= RETIRE_STEPS) {
+                freeRetired(tracked);
+            }
+            final Vector2 position = tracked.physics.body.getPosition();
+            final Rectangle bounds = regions[tracked.region].bounds;
+
+            if (position.x < bounds.x - handoffMargin || position.x > bounds.x + bounds.width + handoffMargin
+                    || position.y < bounds.y - handoffMargin || position.y > bounds.y + bounds.height + handoffMargin) {
+                final int target = getRegionIndex(position.x, position.y);
+                if (target != tracked.region) {
+                    moveTo(tracked, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recreates the body in the target region. The old body is not freed yet: it takes the place of the ghost in the
+     * region it left, keeping its fixture data, so the contacts it has are only ended once the new body has begun
+     * its own and both are dispatched together. Moving back before that takes the old body up again.
+     */
+    private void moveTo(TrackedBody tracked, int target) {
+        final PhysicsRegion to = regions[target];
+        final Body body = tracked.physics.body;
+
+        Body moved;
+        if (tracked.retired != null && tracked.retiredRegion == target) {
+            moved = tracked.retired;
+            syncGhost(moved, body);
+            moved.setAwake(body.isAwake());
+        } else {
+            if (tracked.retired != null) {
+                freeRetired(tracked);
+            }
+
+            Body ghost = tracked.ghosts[target];
+            if (ghost != null) {
+                to.world.destroyBody(ghost);
+                tracked.ghosts[target] = null;
+            }
+
+            final Vector2 position = body.getPosition();
+            moved = to.bodyPool.obtain(tracked.physics.prefab, position.x, position.y,
+                    body.getAngle() * MathUtils.radiansToDegrees);
+            moved.setLinearVelocity(body.getLinearVelocity());
+            moved.setAngularVelocity(body.getAngularVelocity());
+            moved.setAwake(body.isAwake());
+
+            // keep the fixture data, components and handlers hold on to it
+            Array<Fixture> fixtures = body.getFixtureList();
+            Array<Fixture> movedFixtures = moved.getFixtureList();
+            for (int i = 0; i < fixtures.size; ++i) {
+                movedFixtures.get(i).setUserData(fixtures.get(i).getUserData());
+            }
+        }
+
+        tracked.retired = body;
+        tracked.retiredRegion = tracked.region;
+        tracked.retiredSteps = 0;
+        tracked.physics.body = moved;
+        tracked.region = target;
+        handoffs++;
+    }
+
+    private void freeRetired(TrackedBody tracked) {
+        regions[tracked.retiredRegion].bodyPool.free(tracked.physics.prefab, tracked.retired);
+        tracked.retired = null;
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
+        final PhysicsComponent physics = Mappers.physics.get(entity);
+        if (physics.prefab == null || physics.body.getType() == BodyDef.BodyType.StaticBody) {
+            return;
+        }
+        final Vector2 position = physics.body.getPosition();
+
+        TrackedBody tracked = new TrackedBody();
+        tracked.entity = entity;
+        tracked.physics = physics;
+        tracked.region = getRegionIndex(physics.body.getWorld());
+        tracked.ghosts = new Body[regions.length];
+        trackedBodies.add(tracked);
+
+        final int region = getRegionIndex(position.x, position.y);
+        if (tracked.region < 0) {
+            throw new GdxRuntimeException("Body was not created in a region world");
+        }
+        if (region != tracked.region) {
+            moveTo(tracked, region);
+        }
+    }
+
+    @Override
+    public void entityRemoved(Entity entity) {
+        for (int i = 0; i < trackedBodies.size; ++i) {
+            final TrackedBody tracked = trackedBodies.get(i);
+            if (tracked.entity == entity) {
+                for (PhysicsRegion region : regions) {
+                    if (tracked.ghosts[region.index] != null) {
+                        region.world.destroyBody(tracked.ghosts[region.index]);
+                    }
+                }
+                if (tracked.retired != null) {
+                    freeRetired(tracked);
+                }
+                trackedBodies.removeIndex(i);
+                return;
+            }
+        }
+    }
+
+    public int getRegionIndex(float x, float y) {
+        final int column = MathUtils.clamp((int) Math.floor((x - originX) / regionWidth), 0, columns - 1);
+        final int row = MathUtils.clamp((int) Math.floor((y - originY) / regionHeight), 0, rows - 1);
+        return row * columns + column;
+    }
+
+    private int getRegionIndex(World world) {
+        for (PhysicsRegion region : regions) {
+            if (region.world == world) {
+                return region.index;
+            }
+        }
+        return -1;
+    }
+
+    public PhysicsRegion getRegion(int index) {
+        return regions[index];
+    }
+
+    /**
+     * Region owning the given position, spawn bodies from its pool.
+     */
+    public PhysicsRegion getRegion(float x, float y) {
+        return regions[getRegionIndex(x, y)];
+    }
+
+    /**
+     * The pool of every region, removed bodies go back to the one of the region they are in.
+     */
+    public Array<BodyPool> getBodyPools() {
+        return bodyPools;
+    }
+
+    public int getRegionCount() {
+        return regions.length;
+    }
+
+    public int getTrackedBodyCount() {
+        return trackedBodies.size;
+    }
+
+    /**
+     * Number of bodies handed from one region to another since the regions were created.
+     */
+    public int getHandoffCount() {
+        return handoffs;
+    }
+
+    public int getGhostCount() {
+        int count = 0;
+        for (int i = 0; i < trackedBodies.size; ++i) {
+            for (Body ghost : trackedBodies.get(i).ghosts) {
+                if (ghost != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public void setGhostMargin(float ghostMargin) {
+        if (ghostMargin < 0)
+            throw new IllegalArgumentException("ghostMargin must not be negative: " + ghostMargin);
+        this.ghostMargin = ghostMargin;
+    }
+
+    /**
+     * Distance a body has to move out of its region before it is handed off, avoids ping-ponging along borders.
+     */
+    public void setHandoffMargin(float handoffMargin) {
+        if (handoffMargin < 0)
+            throw new IllegalArgumentException("handoffMargin must not be negative: " + handoffMargin);
+        this.handoffMargin = handoffMargin;
+    }
+
+    @Override
+    public void dispose() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        trackedBodies.clear();
+        for (PhysicsRegion region : regions) {
+            region.dispose();
+        }
+        Gdx.app.log(TAG, "Disposed " + regions.length + " regions after " + handoffs + " handoffs");
+    }
+}
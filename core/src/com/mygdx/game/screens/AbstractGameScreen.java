@@ -12,67 +12,110 @@ import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
+import com.mygdx.game.components.MapPhysicsComponent;
 import com.mygdx.game.components.PhysicsComponent;
 import com.mygdx.game.components.TiledMapComponent;
 import com.mygdx.game.listeners.BodyRemovalListener;
+import com.mygdx.game.listeners.FootSensorContactHandler;
+import com.mygdx.game.listeners.MapPhysicsCleanupListener;
 import com.mygdx.game.listeners.TiledMapCleanupListener;
 import com.mygdx.game.listeners.WorldContactListener;
 import com.mygdx.game.systems.*;
-import com.mygdx.game.utils.Box2dUtils;
+import com.mygdx.game.utils.Assets;
+import com.mygdx.game.utils.BodyPool;
+import com.mygdx.game.utils.BodyPrefabs;
 import com.mygdx.game.utils.EntityBuilder;
+import com.mygdx.game.utils.FixtureType;
+import com.mygdx.game.utils.VersionedCamera;
 
 public class AbstractGameScreen extends AbstractScreen {
 
     private SpriteBatch batch;
 
-    private OrthographicCamera camera;
+    private VersionedCamera camera;
+    private OrthographicCamera simulationCamera;
     private Viewport viewport;
 
     private World world;
+    private BodyPool bodyPool;
+    private WorldContactListener contactListener;
+    private final FootSensorContactHandler footSensorContactHandler = new FootSensorContactHandler();
     private Box2DDebugRenderer debugRenderer;
 
     private PooledEngine engine;
+    private PooledEngine renderEngine;
+    private final boolean decoupled;
 
     private BodyRemovalListener bodyRemovalListener;
     private TiledMapCleanupListener tiledMapCleanupListener;
+    private MapPhysicsCleanupListener mapPhysicsCleanupListener;
 
     public AbstractGameScreen(Game game, float sceneWidth, float sceneHeight) {
+        this(game, sceneWidth, sceneHeight, false);
+    }
+
+    /**
+     * A decoupled screen keeps rendering in an engine of its own, separate from the simulation engine and its
+     * camera, so the simulation can be stepped somewhere else and handed over as snapshots. The Box2D debug and
+     * metrics overlays read the world directly and are left out in that mode.
+     */
+    protected AbstractGameScreen(Game game, float sceneWidth, float sceneHeight, boolean decoupled) {
         super(game);
+        this.decoupled = decoupled;
         initGameScene(sceneWidth, sceneHeight);
     }
 
     private void initGameScene(float sceneWidth, float sceneHeight) {
         batch = new SpriteBatch();
-        camera = new OrthographicCamera();
+        camera = new VersionedCamera();
         viewport = new FitViewport(sceneWidth, sceneHeight, camera);
+        simulationCamera = decoupled ? new OrthographicCamera(sceneWidth, sceneHeight) : camera;
 
         world = new World(new Vector2(0, -9.8f), true);
-        world.setContactListener(new WorldContactListener());
+        contactListener = new WorldContactListener();
+        contactListener.register(FixtureType.FOOT_SENSOR, FixtureType.GROUND, footSensorContactHandler);
+        contactListener.register(FixtureType.FOOT_SENSOR, FixtureType.CHARACTER, footSensorContactHandler);
+        world.setContactListener(contactListener);
+        bodyPool = new BodyPool(world);
         debugRenderer = new Box2DDebugRenderer();
 
-        Box2dUtils.init();
+        BodyPrefabs.init();
         intiEntityEngine();
         EntityBuilder.setEngine(engine);
     }
 
     private void intiEntityEngine() {
         engine = new PooledEngine();
-
-        engine.addSystem(new RenderingSystem(batch, camera));
-        engine.addSystem(new PhysicsSystem(world));
-        engine.addSystem(new PhysicsDebugSystem(world, debugRenderer, camera));
+        renderEngine = decoupled ? new PooledEngine() : engine;
+
+        renderEngine.addSystem(new RenderingSystem(batch, camera));
+        // map collision has to be in place before the world steps
+        engine.addSystem(new OffscreenPhysicsSystem());
+        engine.addSystem(new MapPhysicsSystem(world));
+        engine.addSystem(new PhysicsSystem(world, contactListener));
+        engine.addSystem(new PhysicsQuerySystem(world));
+        if (!decoupled) {
+            engine.addSystem(new PhysicsDebugSystem(world, debugRenderer, camera));
+            engine.addSystem(new PhysicsMetricsOverlaySystem(batch, Assets.instance.skin.getFont("default-font")));
+        }
         engine.addSystem(new CameraHelperSystem());
-        engine.addSystem(new TiledMapRenderingSystem(camera));
+        renderEngine.addSystem(new TiledMapRenderingSystem(camera));
         engine.addSystem(new TextureAnimatorSystem());
         engine.addSystem(new CharacterSystem());
         engine.addSystem(new PlayerSystem());
         engine.addSystem(new AiSystem());
+        if (!decoupled) {
+            // the simulation keeps its own pace when decoupled, frame times say nothing about its cost
+            engine.addSystem(new QualitySystem());
+        }
 
-        bodyRemovalListener = new BodyRemovalListener(world);
+        bodyRemovalListener = new BodyRemovalListener(bodyPool);
         tiledMapCleanupListener = new TiledMapCleanupListener();
+        mapPhysicsCleanupListener = new MapPhysicsCleanupListener(world);
 
         engine.addEntityListener(Family.all(PhysicsComponent.class).get(), bodyRemovalListener);
-        engine.addEntityListener(Family.all(TiledMapComponent.class).get(), tiledMapCleanupListener);
+        renderEngine.addEntityListener(Family.all(TiledMapComponent.class).get(), tiledMapCleanupListener);
+        engine.addEntityListener(Family.all(MapPhysicsComponent.class).get(), mapPhysicsCleanupListener);
     }
 
     @Override
@@ -81,6 +124,9 @@ public class AbstractGameScreen extends AbstractScreen {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         engine.update(delta);
+        if (decoupled) {
+            renderEngine.update(delta);
+        }
     }
 
     @Override
@@ -91,29 +137,56 @@ public class AbstractGameScreen extends AbstractScreen {
     @Override
     public void hide() {
         engine.removeAllEntities();
+        if (decoupled) {
+            renderEngine.removeAllEntities();
+        }
         engine.removeEntityListener(bodyRemovalListener);
-        engine.removeEntityListener(tiledMapCleanupListener);
+        renderEngine.removeEntityListener(tiledMapCleanupListener);
+        engine.removeEntityListener(mapPhysicsCleanupListener);
 
         batch.dispose();
+        bodyPool.dispose();
         world.dispose();
         debugRenderer.dispose();
 
-        Box2dUtils.dispose();
+        BodyPrefabs.dispose();
     }
 
     public World getWorld() {
         return world;
     }
 
+    public BodyPool getBodyPool() {
+        return bodyPool;
+    }
+
     public SpriteBatch getBatch() {
         return batch;
     }
 
-    public OrthographicCamera getCamera() {
+    public VersionedCamera getCamera() {
         return camera;
     }
 
+    /**
+     * The camera the simulation systems steer, the render camera itself unless the screen is decoupled.
+     */
+    public OrthographicCamera getSimulationCamera() {
+        return simulationCamera;
+    }
+
     public PooledEngine getEngine() {
         return engine;
     }
+
+    /**
+     * The engine holding the rendering systems, the simulation engine itself unless the screen is decoupled.
+     */
+    public PooledEngine getRenderEngine() {
+        return renderEngine;
+    }
+
+    public boolean isDecoupled() {
+        return decoupled;
+    }
 }
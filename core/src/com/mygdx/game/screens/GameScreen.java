@@ -29,24 +29,45 @@ public class GameScreen extends AbstractGameScreen {
     private static final int RESOLUTION_WIDTH = 1024;
     private static final int RESOLUTION_HEIGHT = 576;
 
-    private static final float SCENE_WIDTH = RESOLUTION_WIDTH / RenderingSystem.PIXEL_PER_UNIT;
-    private static final float SCENE_HEIGHT = RESOLUTION_HEIGHT / RenderingSystem.PIXEL_PER_UNIT;
+    public static final float SCENE_WIDTH = RESOLUTION_WIDTH / RenderingSystem.PIXEL_PER_UNIT;
+    public static final float SCENE_HEIGHT = RESOLUTION_HEIGHT / RenderingSystem.PIXEL_PER_UNIT;
+
+    private static final int TILE_PIXEL_WIDTH = 128;
+    private static final float TILE_WORLD_WIDTH = 0.5f;
+    public static final float MAP_SCALE = DimensionUtils.getScale(TILE_PIXEL_WIDTH, TILE_WORLD_WIDTH);
+
+    public static final float PLAYER_SPAWN_X = 0.6f;
+    public static final float PLAYER_SPAWN_Y = 1.725f;
 
     public GameScreen(Game game) {
-        super(game, SCENE_WIDTH, SCENE_HEIGHT);
+        this(game, false);
+    }
 
-        final int tilePixelWidth = 128;
-        final float tileWorldWidth = 0.5f;
-        final float mapScale = DimensionUtils.getScale(tilePixelWidth, tileWorldWidth);
-        Entity map = EntityBuilder.getMap(getWorld(), Assets.instance.testMap, mapScale, getBatch());
-        Entity player = EntityBuilder.getPlayer(getWorld(), 0.6f, 1.725f);
-        Entity cameraHelper = EntityBuilder.getCameraHelper(getCamera(), player);
+    protected GameScreen(Game game, boolean decoupled) {
+        super(game, SCENE_WIDTH, SCENE_HEIGHT, decoupled);
 
-        TiledMapUtils.setCameraHelperBounds(cameraHelper, map);
+        Entity player = EntityBuilder.getPlayer(getBodyPool(), PLAYER_SPAWN_X, PLAYER_SPAWN_Y);
+        Entity cameraHelper = EntityBuilder.getCameraHelper(getSimulationCamera(), player);
 
         getEngine().addEntity(player);
         getEngine().addEntity(cameraHelper);
-        getEngine().addEntity(map);
+
+        if (decoupled) {
+            // the map is drawn by the render engine while its collision stays with the simulation
+            Entity mapView = EntityBuilder.getMapView(Assets.instance.testMap, MAP_SCALE, getBatch());
+            Entity mapPhysics = EntityBuilder.getMapPhysics(Assets.instance.testMap, MAP_SCALE);
+
+            TiledMapUtils.setCameraHelperBounds(cameraHelper, mapView);
+
+            getEngine().addEntity(mapPhysics);
+            getRenderEngine().addEntity(mapView);
+        } else {
+            Entity map = EntityBuilder.getMap(Assets.instance.testMap, MAP_SCALE, getBatch());
+
+            TiledMapUtils.setCameraHelperBounds(cameraHelper, map);
+
+            getEngine().addEntity(map);
+        }
     }
 
 }
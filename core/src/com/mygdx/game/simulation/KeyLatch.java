@@ -0,0 +1,130 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntSet;
+import com.mygdx.game.utils.KeyInput;
+
+/**
+ * Hands key presses from the render thread to the simulation thread.
+ * <p>
+ * As the input processor it queues every key event the backend delivers on the render thread. As the first system
+ * of the simulation engine it applies the queued events once per tick, so a key reads as just pressed for exactly
+ * one tick no matter how ticks and frames line up, even when it was released again before the tick ran.
+ */
+public class KeyLatch extends EntitySystem implements InputProcessor, KeyInput {
+
+    public static final int PRIORITY = Integer.MIN_VALUE;
+
+    // key codes of pressed keys, released keys as their complement; guarded by this
+    private IntArray pending = new IntArray();
+    private IntArray applied = new IntArray();
+
+    private final IntSet pressed = new IntSet();
+    private final IntSet justPressed = new IntSet();
+
+    public KeyLatch() {
+        super(PRIORITY);
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        synchronized (this) {
+            final IntArray events = pending;
+            pending = applied;
+            applied = events;
+        }
+
+        justPressed.clear();
+        for (int i = 0; i < applied.size; ++i) {
+            final int event = applied.get(i);
+            if (event >= 0) {
+                if (pressed.add(event)) {
+                    justPressed.add(event);
+                }
+            } else {
+                pressed.remove(~event);
+            }
+        }
+        applied.clear();
+    }
+
+    /**
+     * Forgets all keys, call it while the simulation is stopped, e.g. when the screen shows again.
+     */
+    public synchronized void reset() {
+        pending.clear();
+        applied.clear();
+        pressed.clear();
+        justPressed.clear();
+    }
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        return pressed.contains(key);
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        return justPressed.contains(key);
+    }
+
+    @Override
+    public synchronized boolean keyDown(int keycode) {
+        pending.add(keycode);
+        return false;
+    }
+
+    @Override
+    public synchronized boolean keyUp(int keycode) {
+        pending.add(~keycode);
+        return false;
+    }
+
+    @Override
+    public boolean keyTyped(char character) {
+        return false;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        return false;
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        return false;
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        return false;
+    }
+
+    @Override
+    public boolean mouseMoved(int screenX, int screenY) {
+        return false;
+    }
+
+    @Override
+    public boolean scrolled(int amount) {
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Everything the renderer needs from one simulation tick, in flat arrays indexed by sprite.
+ * <p>
+ * Every sprite has its state at the start and at the end of the tick, so the renderer can interpolate between the
+ * two while the next tick is being simulated. A snapshot is only written while it is the back slot of a
+ * {@link TripleBuffer} and must be treated as read only once it is published. Regions are shared, never copied,
+ * which is fine because nothing mutates them.
+ */
+public class RenderSnapshot {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    public long tick;
+    public long publishTime;
+    public float tickTime;
+
+    public int size;
+    public int[] ids = new int[INITIAL_CAPACITY];
+    public TextureRegion[] regions = new TextureRegion[INITIAL_CAPACITY];
+    public boolean[] flipX = new boolean[INITIAL_CAPACITY];
+    public boolean[] flipY = new boolean[INITIAL_CAPACITY];
+    public int[] layers = new int[INITIAL_CAPACITY];
+    public float[] previousX = new float[INITIAL_CAPACITY];
+    public float[] previousY = new float[INITIAL_CAPACITY];
+    public float[] previousAngle = new float[INITIAL_CAPACITY];
+    public float[] x = new float[INITIAL_CAPACITY];
+    public float[] y = new float[INITIAL_CAPACITY];
+    public float[] angle = new float[INITIAL_CAPACITY];
+    public float[] scaleX = new float[INITIAL_CAPACITY];
+    public float[] scaleY = new float[INITIAL_CAPACITY];
+
+    public boolean hasCamera;
+    public float previousCameraX;
+    public float previousCameraY;
+    public float previousCameraZoom;
+    public float cameraX;
+    public float cameraY;
+    public float cameraZoom;
+
+    public void clear() {
+        // drop region references so atlases of removed sprites are not kept alive by old snapshots
+        for (int i = 0; i < size; ++i) {
+            regions[i] = null;
+        }
+        size = 0;
+        hasCamera = false;
+    }
+
+    /**
+     * @return the index of a new sprite, growing the arrays when needed
+     */
+    public int add() {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        return size++;
+    }
+
+    private void grow(int capacity) {
+        ids = copy(ids, capacity);
+        TextureRegion[] newRegions = new TextureRegion[capacity];
+        System.arraycopy(regions, 0, newRegions, 0, size);
+        regions = newRegions;
+        flipX = copy(flipX, capacity);
+        flipY = copy(flipY, capacity);
+        layers = copy(layers, capacity);
+        previousX = copy(previousX, capacity);
+        previousY = copy(previousY, capacity);
+        previousAngle = copy(previousAngle, capacity);
+        x = copy(x, capacity);
+        y = copy(y, capacity);
+        angle = copy(angle, capacity);
+        scaleX = copy(scaleX, capacity);
+        scaleY = copy(scaleY, capacity);
+    }
+
+    private int[] copy(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    private float[] copy(float[] array, int capacity) {
+        float[] copy = new float[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    private boolean[] copy(boolean[] array, int capacity) {
+        boolean[] copy = new boolean[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.TextureComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.VersionedCamera;
+
+import java.util.Iterator;
+
+/**
+ * Mirrors the latest {@link RenderSnapshot} into the render engine, so the rendering systems draw it unchanged.
+ * <p>
+ * Every sprite in the snapshot gets a proxy entity with a texture and a transform, which is removed once its sprite
+ * is no longer published. The proxies and the camera are interpolated from the start to the end of the snapshot's
+ * tick by the time passed since it was published, so the picture is at most one tick behind the simulation and
+ * moves smoothly at any frame rate. Runs before the rendering systems.
+ */
+public class RenderSnapshotReaderSystem extends EntitySystem {
+
+    private final TripleBuffer<RenderSnapshot> buffer;
+    private final VersionedCamera camera;
+
+    private final IntMap<Proxy> proxies = new IntMap<Proxy>();
+    private long appliedTick;
+
+    private static class Proxy {
+        Entity entity;
+        TextureComponent sprite;
+        TransformComponent transform;
+        long tick;
+    }
+
+    public RenderSnapshotReaderSystem(TripleBuffer<RenderSnapshot> buffer, VersionedCamera camera) {
+        super(0);
+        this.buffer = buffer;
+        this.camera = camera;
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        for (Proxy proxy : proxies.values()) {
+            engine.removeEntity(proxy.entity);
+        }
+        proxies.clear();
+        appliedTick = 0;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        final RenderSnapshot snapshot = buffer.acquire();
+        if (snapshot == null) {
+            return;
+        }
+        final float elapsed = (TimeUtils.nanoTime() - snapshot.publishTime) / 1000000000f;
+        final float alpha = MathUtils.clamp(elapsed / snapshot.tickTime, 0f, 1f);
+
+        for (int i = 0; i < snapshot.size; ++i) {
+            final Proxy proxy = getProxy(snapshot.ids[i]);
+            final TextureComponent sprite = proxy.sprite;
+            final TransformComponent transform = proxy.transform;
+
+            sprite.region = snapshot.regions[i];
+            sprite.flipX = snapshot.flipX[i];
+            sprite.flipY = snapshot.flipY[i];
+            sprite.layer = snapshot.layers[i];
+            transform.position.set(
+                    MathUtils.lerp(snapshot.previousX[i], snapshot.x[i], alpha),
+                    MathUtils.lerp(snapshot.previousY[i], snapshot.y[i], alpha));
+            transform.angle = MathUtils.lerpAngleDeg(snapshot.previousAngle[i], snapshot.angle[i], alpha);
+            transform.scale.set(snapshot.scaleX[i], snapshot.scaleY[i]);
+            proxy.tick = snapshot.tick;
+        }
+
+        if (snapshot.tick != appliedTick) {
+            appliedTick = snapshot.tick;
+            removeStaleProxies();
+        }
+
+        if (snapshot.hasCamera) {
+            camera.position.x = MathUtils.lerp(snapshot.previousCameraX, snapshot.cameraX, alpha);
+            camera.position.y = MathUtils.lerp(snapshot.previousCameraY, snapshot.cameraY, alpha);
+            camera.zoom = MathUtils.lerp(snapshot.previousCameraZoom, snapshot.cameraZoom, alpha);
+            camera.update();
+        }
+    }
+
+    private Proxy getProxy(int id) {
+        Proxy proxy = proxies.get(id);
+        if (proxy == null) {
+            final Engine engine = getEngine();
+            proxy = new Proxy();
+            proxy.entity = engine.createEntity();
+            proxy.sprite = engine.createComponent(TextureComponent.class);
+            proxy.transform = engine.createComponent(TransformComponent.class);
+            // positions are interpolated here already
+            proxy.transform.interpolate = false;
+            proxy.entity.add(proxy.sprite);
+            proxy.entity.add(proxy.transform);
+            engine.addEntity(proxy.entity);
+            proxies.put(id, proxy);
+        }
+        return proxy;
+    }
+
+    private void removeStaleProxies() {
+        final Iterator<Proxy> iterator = proxies.values().iterator();
+        while (iterator.hasNext()) {
+            final Proxy proxy = iterator.next();
+            if (proxy.tick != appliedTick) {
+                getEngine().removeEntity(proxy.entity);
+                iterator.remove();
+            }
+        }
+    }
+
+    public int getProxyCount() {
+        return proxies.size;
+    }
+}
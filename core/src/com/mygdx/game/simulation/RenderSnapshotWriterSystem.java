@@ -0,0 +1,177 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.CameraHelperComponent;
+import com.mygdx.game.components.TextureComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.Mappers;
+
+/**
+ * Publishes the state of every textured entity and the camera into a {@link TripleBuffer} once per update.
+ * <p>
+ * Runs last in the simulation engine, so a snapshot holds the finished tick. Every entity gets an id when it is
+ * added that is never reused, which lets the reader tell sprites apart across snapshots. Sprites that interpolate
+ * carry their previous fixed step state, the others the same state twice.
+ */
+public class RenderSnapshotWriterSystem extends EntitySystem implements EntityListener {
+
+    public static final int PRIORITY = 10;
+
+    private final Family family = Family.all(TextureComponent.class, TransformComponent.class).get();
+    private final Family cameraFamily = Family.all(CameraHelperComponent.class).get();
+
+    // parallel arrays of the tracked entities, unordered so removal is a swap with the last element
+    private final Array<Entity> entities = new Array<Entity>(false, 16);
+    private final IntArray ids = new IntArray(false, 16);
+    private final Array<TextureComponent> sprites = new Array<TextureComponent>(false, 16);
+    private final Array<TransformComponent> transforms = new Array<TransformComponent>(false, 16);
+
+    private final TripleBuffer<RenderSnapshot> buffer;
+    private final float tickTime;
+    private ImmutableArray<Entity> cameras;
+
+    private int nextId = 1;
+    private long tick;
+    private boolean hasLastCamera;
+    private float lastCameraX;
+    private float lastCameraY;
+    private float lastCameraZoom;
+
+    /**
+     * @param tickTime simulated time of one update, which the reader interpolates over
+     */
+    public RenderSnapshotWriterSystem(TripleBuffer<RenderSnapshot> buffer, float tickTime) {
+        super(PRIORITY);
+        this.buffer = buffer;
+        this.tickTime = tickTime;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        engine.addEntityListener(family, this);
+        cameras = engine.getEntitiesFor(cameraFamily);
+
+        ImmutableArray<Entity> existing = engine.getEntitiesFor(family);
+        for (int i = 0; i < existing.size(); ++i) {
+            entityAdded(existing.get(i));
+        }
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+        cameras = null;
+
+        entities.clear();
+        ids.clear();
+        sprites.clear();
+        transforms.clear();
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
+        entities.add(entity);
+        ids.add(nextId++);
+        sprites.add(Mappers.sprite.get(entity));
+        transforms.add(Mappers.transform.get(entity));
+    }
+
+    @Override
+    public void entityRemoved(Entity entity) {
+        final int index = entities.indexOf(entity, true);
+        if (index >= 0) {
+            entities.removeIndex(index);
+            ids.removeIndex(index);
+            sprites.removeIndex(index);
+            transforms.removeIndex(index);
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        RenderSnapshot snapshot = buffer.getBack();
+        snapshot.clear();
+
+        for (int i = 0; i < entities.size; ++i) {
+            final TextureComponent sprite = sprites.get(i);
+            if (sprite.region == null) {
+                continue;
+            }
+            final TransformComponent transform = transforms.get(i);
+            final int index = snapshot.add();
+
+            snapshot.ids[index] = ids.get(i);
+            snapshot.regions[index] = sprite.region;
+            snapshot.flipX[index] = sprite.flipX;
+            snapshot.flipY[index] = sprite.flipY;
+            snapshot.layers[index] = sprite.layer;
+            snapshot.x[index] = transform.position.x;
+            snapshot.y[index] = transform.position.y;
+            snapshot.angle[index] = transform.angle;
+            if (transform.interpolate) {
+                snapshot.previousX[index] = transform.previousPosition.x;
+                snapshot.previousY[index] = transform.previousPosition.y;
+                snapshot.previousAngle[index] = transform.previousAngle;
+            } else {
+                snapshot.previousX[index] = transform.position.x;
+                snapshot.previousY[index] = transform.position.y;
+                snapshot.previousAngle[index] = transform.angle;
+            }
+            snapshot.scaleX[index] = transform.scale.x;
+            snapshot.scaleY[index] = transform.scale.y;
+        }
+
+        writeCamera(snapshot);
+
+        snapshot.tick = ++tick;
+        snapshot.tickTime = tickTime;
+        snapshot.publishTime = TimeUtils.nanoTime();
+        buffer.publish();
+    }
+
+    private void writeCamera(RenderSnapshot snapshot) {
+        if (cameras.size() == 0) {
+            hasLastCamera = false;
+            return;
+        }
+        final OrthographicCamera camera = Mappers.cameraHelper.get(cameras.first()).camera;
+
+        snapshot.hasCamera = true;
+        snapshot.cameraX = camera.position.x;
+        snapshot.cameraY = camera.position.y;
+        snapshot.cameraZoom = camera.zoom;
+        snapshot.previousCameraX = hasLastCamera ? lastCameraX : camera.position.x;
+        snapshot.previousCameraY = hasLastCamera ? lastCameraY : camera.position.y;
+        snapshot.previousCameraZoom = hasLastCamera ? lastCameraZoom : camera.zoom;
+
+        hasLastCamera = true;
+        lastCameraX = camera.position.x;
+        lastCameraY = camera.position.y;
+        lastCameraZoom = camera.zoom;
+    }
+}
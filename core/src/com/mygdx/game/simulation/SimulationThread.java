@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Updates an engine on a thread of its own at a fixed rate, with the tick time as delta.
+ * <p>
+ * The engine belongs to this thread while it runs, nothing else may touch its entities or systems until
+ * {@link #stop()} returns. Ticks that start late are caught up back to back; when the simulation falls more than a
+ * few ticks behind the missed time is dropped instead of spiralling. A failure stops the thread and is thrown from
+ * the next {@link #checkFailure()}.
+ */
+public class SimulationThread implements Runnable {
+
+    public static final String TAG = SimulationThread.class.getName();
+
+    private static final int MAX_LAG_TICKS = 5;
+
+    private final Engine engine;
+    private final float tickTime;
+    private final long tickNanos;
+
+    private Thread thread;
+    private volatile boolean running;
+    private volatile Throwable failure;
+    private volatile long ticks;
+    private volatile long droppedTicks;
+    private volatile float lastTickMillis;
+
+    /**
+     * @param tickTime delta of every update, pass the physics step time so each update is exactly one step
+     */
+    public SimulationThread(Engine engine, float tickTime) {
+        if (tickTime <= 0) {
+            throw new IllegalArgumentException("tickTime must be positive: " + tickTime);
+        }
+        this.engine = engine;
+        this.tickTime = tickTime;
+        this.tickNanos = (long) (tickTime * 1000000000d);
+    }
+
+    public void start() {
+        if (thread != null) {
+            throw new GdxRuntimeException("Simulation thread is already running");
+        }
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread and waits for the running tick to finish.
+     */
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        long nextTick = TimeUtils.nanoTime();
+        try {
+            while (running) {
+                final long tickStart = TimeUtils.nanoTime();
+                engine.update(tickTime);
+                final long tickEnd = TimeUtils.nanoTime();
+                lastTickMillis = (tickEnd - tickStart) / 1000000f;
+                ++ticks;
+
+                nextTick += tickNanos;
+                if (tickEnd - nextTick > MAX_LAG_TICKS * tickNanos) {
+                    droppedTicks += (tickEnd - nextTick) / tickNanos;
+                    nextTick = tickEnd;
+                }
+                final long wait = nextTick - tickEnd;
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                    } catch (InterruptedException e) {
+                        // stop() interrupts, the loop condition decides
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+            running = false;
+            Gdx.app.error(TAG, "Simulation stopped after " + ticks + " ticks", t);
+        }
+    }
+
+    /**
+     * Rethrows a failure of the simulation on the calling thread.
+     */
+    public void checkFailure() {
+        final Throwable t = failure;
+        if (t != null) {
+            throw new GdxRuntimeException("Simulation thread failed", t);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public float getTickTime() {
+        return tickTime;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public float getLastTickMillis() {
+        return lastTickMillis;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.mygdx.game.screens.GameScreen;
+import com.mygdx.game.systems.CameraHelperSystem;
+import com.mygdx.game.systems.PhysicsSystem;
+import com.mygdx.game.systems.PlayerSystem;
+
+/**
+ * The game screen with the simulation stepped on its own thread at the physics rate, decoupled from the frame rate.
+ * <p>
+ * Physics, player, AI, animation and the camera helper run in the simulation engine, which publishes a
+ * {@link RenderSnapshot} after every tick. The render thread only updates the render engine, which draws the latest
+ * snapshot without waiting for the simulation. Key events arrive on the render thread, a {@link KeyLatch} queues
+ * them there and hands them to the simulation at the start of each tick, so no press is lost or seen twice when
+ * frames and ticks do not line up.
+ */
+public class ThreadedGameScreen extends GameScreen {
+
+    private final KeyLatch keys = new KeyLatch();
+    private final SimulationThread simulation;
+
+    public ThreadedGameScreen(Game game) {
+        super(game, true);
+
+        final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<RenderSnapshot>(
+                new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+        final float tickTime = getEngine().getSystem(PhysicsSystem.class).getStepTime();
+
+        getEngine().addSystem(keys);
+        getEngine().getSystem(PlayerSystem.class).setInput(keys);
+        getEngine().getSystem(CameraHelperSystem.class).setInput(keys);
+        getEngine().addSystem(new RenderSnapshotWriterSystem(snapshots, tickTime));
+        getRenderEngine().addSystem(new RenderSnapshotReaderSystem(snapshots, getCamera()));
+
+        simulation = new SimulationThread(getEngine(), tickTime);
+    }
+
+    @Override
+    public void show() {
+        keys.reset();
+        Gdx.input.setInputProcessor(keys);
+        simulation.start();
+    }
+
+    @Override
+    public void render(float delta) {
+        simulation.checkFailure();
+
+        Gdx.gl.glClearColor(0.1f, 0.1f, 0.1f, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        getRenderEngine().update(delta);
+    }
+
+    @Override
+    public void pause() {
+        simulation.stop();
+    }
+
+    @Override
+    public void resume() {
+        // keys released while paused never reached the latch
+        keys.reset();
+        simulation.start();
+    }
+
+    @Override
+    public void hide() {
+        simulation.stop();
+        if (Gdx.input.getInputProcessor() == keys) {
+            Gdx.input.setInputProcessor(null);
+        }
+        super.hide();
+    }
+
+    public SimulationThread getSimulation() {
+        return simulation;
+    }
+}
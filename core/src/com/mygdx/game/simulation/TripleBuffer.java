@@ -0,0 +1,76 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands values from one writer thread to one reader thread without locks or copies.
+ * <p>
+ * The writer fills the back slot and publishes it, the reader acquires the latest published slot as its front. The
+ * third slot sits in the middle and is swapped with one of the others in a single atomic exchange, so neither side
+ * ever waits for the other or sees a slot that is being written. The reader skips values published while it was
+ * busy and keeps its front until something newer arrives.
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    // only touched by the writer
+    private int back = 0;
+    // only touched by the reader
+    private int front = 2;
+    private boolean published;
+
+    public TripleBuffer(T first, T second, T third) {
+        if (first == null || second == null || third == null || first == second || second == third || first == third) {
+            throw new IllegalArgumentException("Three distinct slots are needed");
+        }
+        slots = new Object[]{first, second, third};
+    }
+
+    /**
+     * @return the slot the writer fills next, it holds whatever was published two or three times ago
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Makes the back slot the latest value and takes another slot as the new back.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * @return the latest published value, or null when nothing was published yet
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+            published = true;
+        }
+        return published ? (T) slots[front] : null;
+    }
+}
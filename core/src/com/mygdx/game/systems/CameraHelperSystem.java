@@ -19,12 +19,14 @@ package com.mygdx.game.systems;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
-import com.badlogic.gdx.Gdx;
+import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.MathUtils;
 import com.mygdx.game.components.CameraHelperComponent;
-import com.mygdx.game.components.PhysicsComponent;
 import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.GdxKeyInput;
+import com.mygdx.game.utils.KeyInput;
 import com.mygdx.game.utils.Mappers;
 
 public class CameraHelperSystem extends IteratingSystem {
@@ -33,6 +35,8 @@ public class CameraHelperSystem extends IteratingSystem {
     private static final float MIN_SPEED = 0.01f;
     private static final float MAX_SPEED = 1.0f;
 
+    private KeyInput input = GdxKeyInput.instance;
+
     public CameraHelperSystem() {
         super(Family.all(CameraHelperComponent.class).get(), 1);
     }
@@ -42,10 +46,10 @@ public class CameraHelperSystem extends IteratingSystem {
         CameraHelperComponent cameraHelper = Mappers.cameraHelper.get(entity);
         TransformComponent transform = Mappers.transform.get(entity);
 
-        if (Gdx.input.isKeyPressed(Input.Keys.Z)) {
+        if (input.isKeyPressed(Input.Keys.Z)) {
             cameraHelper.zoom += deltaTime;
         }
-        if (Gdx.input.isKeyPressed(Input.Keys.X)) {
+        if (input.isKeyPressed(Input.Keys.X)) {
             cameraHelper.zoom -= deltaTime;
         }
 
@@ -64,10 +68,19 @@ public class CameraHelperSystem extends IteratingSystem {
     }
 
     private void followTarget(CameraHelperComponent cameraHelper, TransformComponent transform) {
-        PhysicsComponent targetPhysics = Mappers.physics.get(cameraHelper.target);
+        TransformComponent targetTransform = Mappers.transform.get(cameraHelper.target);
+
+        float targetX = targetTransform.position.x;
+        float targetY = targetTransform.position.y;
+        if (targetTransform.interpolate) {
+            final PhysicsSystem physicsSystem = getEngine().getSystem(PhysicsSystem.class);
+            final float alpha = (physicsSystem != null) ? physicsSystem.getAlpha() : 1f;
+            targetX = MathUtils.lerp(targetTransform.previousPosition.x, targetX, alpha);
+            targetY = MathUtils.lerp(targetTransform.previousPosition.y, targetY, alpha);
+        }
 
-        transform.position.x += (targetPhysics.body.getPosition().x - transform.position.x) * cameraHelper.speed;
-        transform.position.y += (targetPhysics.body.getPosition().y - transform.position.y) * cameraHelper.speed;
+        transform.position.x += (targetX - transform.position.x) * cameraHelper.speed;
+        transform.position.y += (targetY - transform.position.y) * cameraHelper.speed;
     }
 
     private void limitZoom(float halfViewportWidth, float halfViewportHeight,
@@ -99,4 +112,23 @@ public class CameraHelperSystem extends IteratingSystem {
         cameraHelper.camera.zoom = cameraHelper.zoom;
         cameraHelper.camera.update();
     }
+
+    public void setInput(KeyInput input) {
+        this.input = input;
+    }
+
+    /**
+     * Whether a point is within the margin of the view of at least one of the camera helpers.
+     */
+    public static boolean isInRange(ImmutableArray<Entity> cameraHelpers, float x, float y, float margin) {
+        for (int i = 0; i < cameraHelpers.size(); ++i) {
+            OrthographicCamera camera = Mappers.cameraHelper.get(cameraHelpers.get(i)).camera;
+            final float halfWidth = camera.viewportWidth * camera.zoom * 0.5f + margin;
+            final float halfHeight = camera.viewportHeight * camera.zoom * 0.5f + margin;
+            if (Math.abs(x - camera.position.x) <= halfWidth && Math.abs(y - camera.position.y) <= halfHeight) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
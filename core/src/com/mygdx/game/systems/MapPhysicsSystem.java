@@ -0,0 +1,174 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.mygdx.game.components.CameraHelperComponent;
+import com.mygdx.game.components.MapPhysicsComponent;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.ChunkBodies;
+import com.mygdx.game.utils.MapPhysicsChunk;
+import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.WorldChunkBodies;
+
+/**
+ * Keeps map collision alive only around the camera and the moving bodies.
+ * <p>
+ * A chunk gets its body the first time it is needed, is deactivated as soon as nothing is near it and is destroyed
+ * after staying idle for {@link #setDestroyDelay(float) a while}. Must run before {@link PhysicsSystem}.
+ */
+public class MapPhysicsSystem extends IteratingSystem {
+
+    private static final float DEFAULT_CAMERA_MARGIN = 2f;
+    private static final float DEFAULT_BODY_MARGIN = 1f;
+    private static final float DEFAULT_DESTROY_DELAY = 2f;
+
+    private final ChunkBodies chunkBodies;
+    private final Family cameraFamily = Family.all(CameraHelperComponent.class).get();
+    private final Family bodyFamily = Family.all(PhysicsComponent.class, TransformComponent.class).get();
+
+    private ImmutableArray<Entity> cameras;
+    private ImmutableArray<Entity> bodies;
+
+    private float cameraMargin = DEFAULT_CAMERA_MARGIN;
+    private float bodyMargin = DEFAULT_BODY_MARGIN;
+    private float destroyDelay = DEFAULT_DESTROY_DELAY;
+
+    private int frame;
+
+    public MapPhysicsSystem(World world) {
+        this(new WorldChunkBodies(world));
+    }
+
+    public MapPhysicsSystem(ChunkBodies chunkBodies) {
+        super(Family.all(MapPhysicsComponent.class).get());
+        this.chunkBodies = chunkBodies;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        super.addedToEngine(engine);
+        cameras = engine.getEntitiesFor(cameraFamily);
+        bodies = engine.getEntitiesFor(bodyFamily);
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        frame++;
+        super.update(deltaTime);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+        MapPhysicsComponent mapPhysics = Mappers.mapPhysics.get(entity);
+
+        for (int i = 0; i < cameras.size(); ++i) {
+            OrthographicCamera camera = Mappers.cameraHelper.get(cameras.get(i)).camera;
+            final float halfWidth = camera.viewportWidth * camera.zoom * 0.5f + cameraMargin;
+            final float halfHeight = camera.viewportHeight * camera.zoom * 0.5f + cameraMargin;
+            markNeeded(mapPhysics, camera.position.x - halfWidth, camera.position.y - halfHeight,
+                    camera.position.x + halfWidth, camera.position.y + halfHeight);
+        }
+
+        for (int i = 0; i < bodies.size(); ++i) {
+            if (Mappers.physics.get(bodies.get(i)).dormant) {
+                continue;
+            }
+            Vector2 position = Mappers.transform.get(bodies.get(i)).position;
+            markNeeded(mapPhysics, position.x - bodyMargin, position.y - bodyMargin,
+                    position.x + bodyMargin, position.y + bodyMargin);
+        }
+
+        for (int i = mapPhysics.liveChunks.size - 1; i >= 0; --i) {
+            MapPhysicsChunk chunk = mapPhysics.liveChunks.get(i);
+            if (chunk.neededFrame == frame) {
+                chunk.idleTime = 0;
+                continue;
+            }
+            if (chunk.active) {
+                chunkBodies.setActive(chunk, false);
+                chunk.active = false;
+            }
+            chunk.idleTime += deltaTime;
+            if (chunk.idleTime >= destroyDelay) {
+                chunkBodies.destroy(chunk);
+                chunk.live = false;
+                mapPhysics.liveChunks.removeIndex(i);
+            }
+        }
+    }
+
+    private void markNeeded(MapPhysicsComponent mapPhysics, float minX, float minY, float maxX, float maxY) {
+        // chunks holding a polygon reach past their cell, so neighbours that far away are looked at too
+        final float overhang = mapPhysics.overhang;
+        final int firstColumn = Math.max(0, MathUtils.floor((minX - overhang - mapPhysics.originX) / mapPhysics.chunkSize));
+        final int lastColumn = Math.min(mapPhysics.columns - 1, MathUtils.floor((maxX + overhang - mapPhysics.originX) / mapPhysics.chunkSize));
+        final int firstRow = Math.max(0, MathUtils.floor((minY - overhang - mapPhysics.originY) / mapPhysics.chunkSize));
+        final int lastRow = Math.min(mapPhysics.rows - 1, MathUtils.floor((maxY + overhang - mapPhysics.originY) / mapPhysics.chunkSize));
+
+        for (int row = firstRow; row <= lastRow; ++row) {
+            for (int column = firstColumn; column <= lastColumn; ++column) {
+                MapPhysicsChunk chunk = mapPhysics.chunks[row * mapPhysics.columns + column];
+                if (chunk.neededFrame == frame || chunk.isEmpty()) {
+                    continue;
+                }
+                final Rectangle bounds = chunk.bounds;
+                if (bounds.x > maxX || bounds.x + bounds.width < minX
+                        || bounds.y > maxY || bounds.y + bounds.height < minY) {
+                    continue;
+                }
+                chunk.neededFrame = frame;
+
+                if (!chunk.live) {
+                    chunkBodies.create(chunk);
+                    chunk.live = true;
+                    chunk.active = true;
+                    mapPhysics.liveChunks.add(chunk);
+                } else if (!chunk.active) {
+                    chunkBodies.setActive(chunk, true);
+                    chunk.active = true;
+                }
+            }
+        }
+    }
+
+    public void setCameraMargin(float cameraMargin) {
+        this.cameraMargin = cameraMargin;
+    }
+
+    public void setBodyMargin(float bodyMargin) {
+        this.bodyMargin = bodyMargin;
+    }
+
+    public void setDestroyDelay(float destroyDelay) {
+        this.destroyDelay = destroyDelay;
+    }
+
+    public float getCameraMargin() {
+        return cameraMargin;
+    }
+}
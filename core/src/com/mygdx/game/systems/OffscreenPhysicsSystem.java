@@ -0,0 +1,186 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.utils.Array;
+import com.mygdx.game.components.CameraHelperComponent;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.Mappers;
+
+/**
+ * Deactivates dynamic bodies that are far from every camera, so a big populated level costs about as much as the
+ * area around the view.
+ * <p>
+ * A body goes dormant once it is more than the margin plus the hysteresis outside all camera views and wakes up
+ * again as soon as it is within the margin of one. Its transform and velocities are saved on the
+ * {@link PhysicsComponent} and put back exactly on wake up. It always wakes up awake, even if it was asleep: its
+ * contacts ended when it was deactivated and a sleeping body would never find the ground it rests on again. It falls
+ * asleep again once it settles. The range check reads the entity's transform, so dormant bodies cost no native calls. Without cameras nothing changes. Must run before {@link MapPhysicsSystem} so map
+ * collision is built around bodies the frame they wake up.
+ */
+public class OffscreenPhysicsSystem extends EntitySystem implements EntityListener {
+
+    private static final float DEFAULT_MARGIN = 4f;
+    private static final float DEFAULT_HYSTERESIS = 1f;
+
+    private final Family family = Family.all(PhysicsComponent.class, TransformComponent.class).get();
+    private final Family cameraFamily = Family.all(CameraHelperComponent.class).get();
+
+    // parallel arrays of the dynamic bodies, unordered so removal is a swap with the last element
+    private final Array<Entity> entities = new Array<Entity>(false, 16);
+    private final Array<PhysicsComponent> physics = new Array<PhysicsComponent>(false, 16);
+    private final Array<TransformComponent> transforms = new Array<TransformComponent>(false, 16);
+
+    private ImmutableArray<Entity> cameras;
+
+    private float margin = DEFAULT_MARGIN;
+    private float hysteresis = DEFAULT_HYSTERESIS;
+    private int dormantCount;
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        cameras = engine.getEntitiesFor(cameraFamily);
+        engine.addEntityListener(family, this);
+
+        ImmutableArray<Entity> entities = engine.getEntitiesFor(family);
+        for (int i = 0; i < entities.size(); ++i) {
+            entityAdded(entities.get(i));
+        }
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+
+        for (int i = 0; i < physics.size; ++i) {
+            if (physics.get(i).dormant) {
+                wake(physics.get(i));
+            }
+        }
+        entities.clear();
+        physics.clear();
+        transforms.clear();
+        dormantCount = 0;
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
+        PhysicsComponent physics = Mappers.physics.get(entity);
+        if (physics.body.getType() != BodyDef.BodyType.DynamicBody) {
+            return;
+        }
+        entities.add(entity);
+        this.physics.add(physics);
+        transforms.add(Mappers.transform.get(entity));
+        if (physics.dormant) {
+            dormantCount++;
+        }
+    }
+
+    @Override
+    public void entityRemoved(Entity entity) {
+        final int index = entities.indexOf(entity, true);
+        if (index >= 0) {
+            if (physics.get(index).dormant) {
+                dormantCount--;
+            }
+            entities.removeIndex(index);
+            physics.removeIndex(index);
+            transforms.removeIndex(index);
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        if (cameras.size() == 0) {
+            return;
+        }
+
+        for (int i = 0; i < physics.size; ++i) {
+            PhysicsComponent physics = this.physics.get(i);
+            Vector2 position = transforms.get(i).position;
+
+            if (physics.dormant) {
+                if (isInRange(position.x, position.y, margin)) {
+                    wake(physics);
+                    dormantCount--;
+                }
+            } else if (!isInRange(position.x, position.y, margin + hysteresis)) {
+                sleep(physics);
+                dormantCount++;
+            }
+        }
+    }
+
+    private boolean isInRange(float x, float y, float margin) {
+        return CameraHelperSystem.isInRange(cameras, x, y, margin);
+    }
+
+    private void sleep(PhysicsComponent physics) {
+        Body body = physics.body;
+        physics.dormantPosition.set(body.getPosition());
+        physics.dormantAngle = body.getAngle();
+        physics.dormantLinearVelocity.set(body.getLinearVelocity());
+        physics.dormantAngularVelocity = body.getAngularVelocity();
+        physics.dormant = true;
+
+        // contacts ended here are dispatched by PhysicsSystem before its next step
+        body.setActive(false);
+    }
+
+    private void wake(PhysicsComponent physics) {
+        Body body = physics.body;
+        body.setActive(true);
+        body.setTransform(physics.dormantPosition, physics.dormantAngle);
+        body.setLinearVelocity(physics.dormantLinearVelocity);
+        body.setAngularVelocity(physics.dormantAngularVelocity);
+        // deactivating ended all contacts and Box2D does not look for them again on a sleeping body, so it would
+        // never report the ground it rests on; it falls asleep again once it settles
+        body.setAwake(true);
+        physics.dormant = false;
+    }
+
+    public void setMargin(float margin) {
+        this.margin = margin;
+    }
+
+    public void setHysteresis(float hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
+    public float getMargin() {
+        return margin;
+    }
+
+    public int getDormantCount() {
+        return dormantCount;
+    }
+
+    public int getActiveCount() {
+        return physics.size - dormantCount;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.systems;
+
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.mygdx.game.utils.PhysicsMetrics;
+import com.mygdx.game.utils.RollingHistogram;
+
+/**
+ * Draws the {@link PhysicsMetrics} of the {@link PhysicsSystem} in the top left corner of the screen, toggled with
+ * F3. Turns red while the physics runs over its budget.
+ */
+public class PhysicsMetricsOverlaySystem extends EntitySystem {
+
+    private static final int TOGGLE_KEY = Input.Keys.F3;
+    private static final float MARGIN = 8f;
+
+    private final SpriteBatch batch;
+    private final BitmapFont font;
+    private final Matrix4 projection = new Matrix4();
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean visible;
+    private int screenWidth;
+    private int screenHeight;
+
+    public PhysicsMetricsOverlaySystem(SpriteBatch batch, BitmapFont font) {
+        priority = 5;
+        this.batch = batch;
+        this.font = font;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        if (Gdx.input.isKeyJustPressed(TOGGLE_KEY)) {
+            setVisible(!visible);
+        }
+        if (!visible) {
+            return;
+        }
+        final PhysicsSystem physicsSystem = getEngine().getSystem(PhysicsSystem.class);
+        if (physicsSystem == null) {
+            return;
+        }
+        final PhysicsMetrics metrics = physicsSystem.getMetrics();
+
+        text.setLength(0);
+        appendMillis("physics", metrics.frameMillis);
+        text.append(" / budget ");
+        appendDecimal(metrics.getBudgetMillis());
+        text.append('\n');
+        appendMillis("step", metrics.stepMillis);
+        text.append('\n');
+        appendMillis("listeners", metrics.listenerMillis);
+        text.append('\n');
+        text.append("sub-steps ").append((int) metrics.subSteps.getLatest())
+                .append(" max ").append((int) metrics.subSteps.getMax());
+        text.append(", backlog ");
+        appendDecimal(metrics.backlogSteps.getLatest());
+        text.append('\n');
+        text.append("bodies ").append((int) metrics.bodies.getLatest())
+                .append(", contacts ").append((int) metrics.contacts.getLatest())
+                .append(", proxies ").append((int) metrics.proxies.getLatest());
+
+        final QualitySystem qualitySystem = getEngine().getSystem(QualitySystem.class);
+        if (qualitySystem != null) {
+            text.append('\n');
+            text.append("quality ").append(qualitySystem.getTier().name()).append(", frame p")
+                    .append(Math.round(qualitySystem.getPercentile() * 100)).append(' ');
+            appendDecimal(qualitySystem.getFramePercentileMillis());
+            text.append(" ms, ").append(qualitySystem.getDowngrades()).append(" down / ")
+                    .append(qualitySystem.getUpgrades()).append(" up");
+        }
+
+        if (screenWidth != Gdx.graphics.getWidth() || screenHeight != Gdx.graphics.getHeight()) {
+            screenWidth = Gdx.graphics.getWidth();
+            screenHeight = Gdx.graphics.getHeight();
+            projection.setToOrtho2D(0, 0, screenWidth, screenHeight);
+        }
+
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        font.setColor(metrics.isOverBudget() ? Color.RED : Color.WHITE);
+        font.draw(batch, text, MARGIN, screenHeight - MARGIN);
+        batch.end();
+        font.setColor(Color.WHITE);
+    }
+
+    private void appendMillis(String label, RollingHistogram histogram) {
+        text.append(label).append(' ');
+        appendDecimal(histogram.getMean());
+        text.append(" ms, p95 ");
+        appendDecimal(histogram.getPercentile(0.95f));
+        text.append(", max ");
+        appendDecimal(histogram.getMax());
+    }
+
+    // two decimals without going through Float.toString
+    private void appendDecimal(float value) {
+        final int hundredths = Math.round(value * 100);
+        text.append(hundredths / 100).append('.');
+        final int fraction = hundredths % 100;
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Listener callbacks are only timed while the overlay is visible.
+     */
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        final PhysicsSystem physicsSystem = getEngine().getSystem(PhysicsSystem.class);
+        if (physicsSystem != null) {
+            physicsSystem.setListenerTimingEnabled(visible);
+        }
+    }
+}
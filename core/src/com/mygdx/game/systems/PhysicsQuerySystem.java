@@ -0,0 +1,264 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.systems;
+
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Batches raycasts and AABB queries. Systems enqueue queries during their update and get a handle back, the queries
+ * run together in the next update of this system, right after {@link PhysicsSystem} stepped the world, and their
+ * results stay readable through the handle until the following batch. Reported fixtures are only valid as long as
+ * their body exists.
+ * <p>
+ * Identical queries enqueued in the same tick share one handle and run once. Results are written into buffers that
+ * are reused from tick to tick. Raycasts report the closest non-sensor fixture, AABB queries every fixture whose
+ * bounding box overlaps, sensors included.
+ */
+public class PhysicsQuerySystem extends EntitySystem implements RayCastCallback, QueryCallback {
+
+    public static final int INVALID_HANDLE = -1;
+
+    private static final byte RAYCAST = 0;
+    private static final byte AABB = 1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int RAY_RESULT_SIZE = 5;
+
+    private final World world;
+
+    // queries enqueued this tick
+    private float[] pendingQueries = new float[INITIAL_CAPACITY * 4];
+    private byte[] pendingKinds = new byte[INITIAL_CAPACITY];
+    private int pendingCount;
+    private final IntIntMap cache = new IntIntMap(INITIAL_CAPACITY);
+
+    // queries of the last batch and their results, indexed by handle
+    private float[] queries = new float[INITIAL_CAPACITY * 4];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int count;
+    private float[] rayResults = new float[INITIAL_CAPACITY * RAY_RESULT_SIZE];
+    private Fixture[] rayFixtures = new Fixture[INITIAL_CAPACITY];
+    private int[] aabbStarts = new int[INITIAL_CAPACITY];
+    private int[] aabbCounts = new int[INITIAL_CAPACITY];
+    private final Array<Fixture> aabbFixtures = new Array<Fixture>(false, INITIAL_CAPACITY);
+
+    private int current;
+    private int batchedQueries;
+    private int cacheHits;
+
+    public PhysicsQuerySystem(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        swapBuffers();
+        aabbFixtures.clear();
+        for (current = 0; current < count; ++current) {
+            final int offset = current * 4;
+            if (kinds[current] == RAYCAST) {
+                rayResults[current * RAY_RESULT_SIZE] = 1f;
+                rayFixtures[current] = null;
+                // Box2D asserts on zero length rays, they cannot hit anything anyway
+                if (queries[offset] != queries[offset + 2] || queries[offset + 1] != queries[offset + 3]) {
+                    world.rayCast(this, queries[offset], queries[offset + 1], queries[offset + 2], queries[offset + 3]);
+                }
+            } else {
+                aabbStarts[current] = aabbFixtures.size;
+                world.QueryAABB(this, queries[offset], queries[offset + 1], queries[offset + 2], queries[offset + 3]);
+                aabbCounts[current] = aabbFixtures.size - aabbStarts[current];
+            }
+        }
+        batchedQueries = count;
+    }
+
+    private void swapBuffers() {
+        float[] swapQueries = queries;
+        queries = pendingQueries;
+        pendingQueries = swapQueries;
+
+        byte[] swapKinds = kinds;
+        kinds = pendingKinds;
+        pendingKinds = swapKinds;
+
+        count = pendingCount;
+        pendingCount = 0;
+        cache.clear();
+
+        if (rayFixtures.length < kinds.length) {
+            rayResults = new float[kinds.length * RAY_RESULT_SIZE];
+            rayFixtures = new Fixture[kinds.length];
+            aabbStarts = new int[kinds.length];
+            aabbCounts = new int[kinds.length];
+        }
+        if (pendingKinds.length < kinds.length) {
+            pendingQueries = new float[kinds.length * 4];
+            pendingKinds = new byte[kinds.length];
+        }
+    }
+
+    @Override
+    public float reportRayFixture(Fixture fixture, Vector2 point, Vector2 normal, float fraction) {
+        if (fixture.isSensor()) {
+            return -1;
+        }
+        final int offset = current * RAY_RESULT_SIZE;
+        rayResults[offset] = fraction;
+        rayResults[offset + 1] = point.x;
+        rayResults[offset + 2] = point.y;
+        rayResults[offset + 3] = normal.x;
+        rayResults[offset + 4] = normal.y;
+        rayFixtures[current] = fixture;
+        // clip the ray to this hit so only closer fixtures are reported afterwards
+        return fraction;
+    }
+
+    @Override
+    public boolean reportFixture(Fixture fixture) {
+        aabbFixtures.add(fixture);
+        return true;
+    }
+
+    /**
+     * Enqueues a raycast from (x1, y1) to (x2, y2), its result can be read once the next batch ran. A ray whose
+     * ends are the same point reports no hit.
+     */
+    public int raycast(float x1, float y1, float x2, float y2) {
+        return enqueue(RAYCAST, x1, y1, x2, y2);
+    }
+
+    /**
+     * Enqueues a query for all fixtures overlapping the given box, its result can be read once the next batch ran.
+     */
+    public int queryAABB(float lowerX, float lowerY, float upperX, float upperY) {
+        return enqueue(AABB, lowerX, lowerY, upperX, upperY);
+    }
+
+    private int enqueue(byte kind, float a, float b, float c, float d) {
+        int hash = kind;
+        hash = 31 * hash + Float.floatToIntBits(a);
+        hash = 31 * hash + Float.floatToIntBits(b);
+        hash = 31 * hash + Float.floatToIntBits(c);
+        hash = 31 * hash + Float.floatToIntBits(d);
+
+        final int cached = cache.get(hash, INVALID_HANDLE);
+        if (cached != INVALID_HANDLE && pendingKinds[cached] == kind) {
+            final int offset = cached * 4;
+            if (pendingQueries[offset] == a && pendingQueries[offset + 1] == b
+                    && pendingQueries[offset + 2] == c && pendingQueries[offset + 3] == d) {
+                cacheHits++;
+                return cached;
+            }
+        }
+
+        if (pendingCount == pendingKinds.length) {
+            growPending();
+        }
+        final int handle = pendingCount++;
+        final int offset = handle * 4;
+        pendingKinds[handle] = kind;
+        pendingQueries[offset] = a;
+        pendingQueries[offset + 1] = b;
+        pendingQueries[offset + 2] = c;
+        pendingQueries[offset + 3] = d;
+        if (cached == INVALID_HANDLE) {
+            cache.put(hash, handle);
+        }
+        return handle;
+    }
+
+    private void growPending() {
+        final int capacity = pendingKinds.length * 2;
+
+        float[] newQueries = new float[capacity * 4];
+        System.arraycopy(pendingQueries, 0, newQueries, 0, pendingCount * 4);
+        pendingQueries = newQueries;
+
+        byte[] newKinds = new byte[capacity];
+        System.arraycopy(pendingKinds, 0, newKinds, 0, pendingCount);
+        pendingKinds = newKinds;
+    }
+
+    private void checkHandle(int handle, byte kind) {
+        if (handle < 0 || handle >= count || kinds[handle] != kind) {
+            throw new IllegalArgumentException("Invalid query handle: " + handle);
+        }
+    }
+
+    public boolean hasHit(int handle) {
+        checkHandle(handle, RAYCAST);
+        return rayFixtures[handle] != null;
+    }
+
+    /**
+     * Closest hit of the raycast, null if the ray hit nothing.
+     */
+    public Fixture getHitFixture(int handle) {
+        checkHandle(handle, RAYCAST);
+        return rayFixtures[handle];
+    }
+
+    /**
+     * Fraction of the ray length at the closest hit, 1 if the ray hit nothing.
+     */
+    public float getHitFraction(int handle) {
+        checkHandle(handle, RAYCAST);
+        return rayResults[handle * RAY_RESULT_SIZE];
+    }
+
+    public Vector2 getHitPoint(int handle, Vector2 out) {
+        checkHandle(handle, RAYCAST);
+        final int offset = handle * RAY_RESULT_SIZE;
+        return out.set(rayResults[offset + 1], rayResults[offset + 2]);
+    }
+
+    public Vector2 getHitNormal(int handle, Vector2 out) {
+        checkHandle(handle, RAYCAST);
+        final int offset = handle * RAY_RESULT_SIZE;
+        return out.set(rayResults[offset + 3], rayResults[offset + 4]);
+    }
+
+    public int getFixtureCount(int handle) {
+        checkHandle(handle, AABB);
+        return aabbCounts[handle];
+    }
+
+    public Fixture getFixture(int handle, int index) {
+        checkHandle(handle, AABB);
+        if (index < 0 || index >= aabbCounts[handle]) {
+            throw new IndexOutOfBoundsException("index can't be >= " + aabbCounts[handle] + ": " + index);
+        }
+        return aabbFixtures.get(aabbStarts[handle] + index);
+    }
+
+    /**
+     * Number of distinct queries that ran in the last batch.
+     */
+    public int getBatchedQueryCount() {
+        return batchedQueries;
+    }
+
+    /**
+     * Number of queries answered by an identical query of the same tick, since the system was created.
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+}
@@ -17,49 +17,245 @@
 package com.mygdx.game.systems;
 
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Transform;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.mygdx.game.components.PhysicsComponent;
 import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.listeners.WorldContactListener;
 import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.PhysicsMetrics;
+import com.mygdx.game.utils.PhysicsStepper;
+import com.mygdx.game.utils.WorldStepper;
 
-public class PhysicsSystem extends IteratingSystem {
+/**
+ * Steps the physics at a fixed rate and copies body transforms back to the entities once per frame, twice on frames
+ * that take several steps to keep the interpolation start current. The physics is a single world or anything else
+ * behind a {@link PhysicsStepper}, such as a level split into regions.
+ * <p>
+ * Only dynamic and kinematic bodies are synced, static bodies never move and are ignored from the moment they are
+ * added. Each synced body costs a single native call per copy: {@link com.badlogic.gdx.physics.box2d.Body#getTransform()}
+ * returns position and rotation together, which is no more expensive than asking whether the body is awake.
+ */
+public class PhysicsSystem extends EntitySystem implements EntityListener {
 
-    private static final int VELOCITY_ITERATIONS = 8;
-    private static final int POSITION_ITERATIONS = 3;
-    private static final float STEP_TIME = 1 / 60f;
+    private static final int DEFAULT_VELOCITY_ITERATIONS = 8;
+    private static final int DEFAULT_POSITION_ITERATIONS = 3;
+    private static final float DEFAULT_TICK_RATE = 60f;
+    private static final int DEFAULT_MAX_SUB_STEPS = 5;
     private static final float MAX_FRAME_TIME = 0.25f;
 
-    private World world;
+    private final Family family = Family.all(PhysicsComponent.class, TransformComponent.class).get();
+
+    // parallel arrays of the non-static bodies, unordered so removal is a swap with the last element
+    private final Array<Entity> syncEntities = new Array<Entity>(false, 16);
+    private final Array<PhysicsComponent> syncPhysics = new Array<PhysicsComponent>(false, 16);
+    private final Array<TransformComponent> syncTransforms = new Array<TransformComponent>(false, 16);
+
+    private final PhysicsStepper stepper;
+    private final PhysicsMetrics metrics = new PhysicsMetrics();
     private float accumulator = 0f;
+    private float stepTime;
+    private int maxSubSteps;
+    private int velocityIterations = DEFAULT_VELOCITY_ITERATIONS;
+    private int positionIterations = DEFAULT_POSITION_ITERATIONS;
+    private float alpha = 0f;
+
+    public PhysicsSystem(World world, WorldContactListener contactListener) {
+        this(world, contactListener, DEFAULT_TICK_RATE, DEFAULT_MAX_SUB_STEPS);
+    }
+
+    public PhysicsSystem(World world, WorldContactListener contactListener, float tickRate, int maxSubSteps) {
+        this(new WorldStepper(world, contactListener), tickRate, maxSubSteps);
+    }
+
+    public PhysicsSystem(PhysicsStepper stepper) {
+        this(stepper, DEFAULT_TICK_RATE, DEFAULT_MAX_SUB_STEPS);
+    }
 
-    public PhysicsSystem(World world) {
-        super(Family.all(PhysicsComponent.class, TransformComponent.class).get());
-        this.world = world;
+    public PhysicsSystem(PhysicsStepper stepper, float tickRate, int maxSubSteps) {
+        this.stepper = stepper;
+        setTickRate(tickRate);
+        setMaxSubSteps(maxSubSteps);
     }
 
     @Override
-    public void update(float deltaTime) {
-        final float frameTime = Math.min(deltaTime, MAX_FRAME_TIME);
-        accumulator += deltaTime;
-        while (accumulator >= STEP_TIME) {
-            world.step(STEP_TIME, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
-            accumulator -= frameTime;
-            super.update(deltaTime);
+    public void addedToEngine(Engine engine) {
+        engine.addEntityListener(family, this);
+
+        ImmutableArray<Entity> entities = engine.getEntitiesFor(family);
+        for (int i = 0; i < entities.size(); ++i) {
+            entityAdded(entities.get(i));
         }
     }
 
     @Override
-    protected void processEntity(Entity entity, float deltaTime) {
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+
+        syncEntities.clear();
+        syncPhysics.clear();
+        syncTransforms.clear();
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
         PhysicsComponent physics = Mappers.physics.get(entity);
-        if (physics.body.isAwake()) {
-            TransformComponent transform = Mappers.transform.get(entity);
-            transform.position.set(physics.body.getPosition());
-            transform.angle = physics.body.getAngle() * MathUtils.radiansToDegrees;
+        if (physics.body.getType() == BodyDef.BodyType.StaticBody) {
+            return;
         }
+        syncEntities.add(entity);
+        syncPhysics.add(physics);
+        syncTransforms.add(Mappers.transform.get(entity));
     }
 
+    @Override
+    public void entityRemoved(Entity entity) {
+        final int index = syncEntities.indexOf(entity, true);
+        if (index >= 0) {
+            syncEntities.removeIndex(index);
+            syncPhysics.removeIndex(index);
+            syncTransforms.removeIndex(index);
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        final long frameStartTime = TimeUtils.nanoTime();
+
+        // contacts ended outside of a step, e.g. by destroying or deactivating bodies
+        stepper.dispatchContacts();
+
+        accumulator += Math.min(deltaTime, MAX_FRAME_TIME);
+
+        int subSteps = 0;
+        while (accumulator >= stepTime && subSteps < maxSubSteps) {
+            // alpha blends across the last step of the frame only, so that is the state to interpolate from
+            final boolean lastStep = accumulator - stepTime < stepTime || subSteps + 1 >= maxSubSteps;
+            if (lastStep) {
+                if (subSteps > 0) {
+                    syncTransforms();
+                }
+                savePreviousState();
+            }
+            final long stepStartTime = TimeUtils.nanoTime();
+            stepper.step(stepTime, velocityIterations, positionIterations);
+            metrics.stepMillis.record(TimeUtils.timeSinceNanos(stepStartTime) / 1000000f);
+            stepper.dispatchContacts();
+            accumulator -= stepTime;
+            subSteps++;
+        }
+
+        metrics.backlogSteps.record(accumulator / stepTime);
+
+        // we could not catch up within the sub-step budget, drop the backlog instead of spiralling
+        if (accumulator >= stepTime) {
+            accumulator %= stepTime;
+        }
+
+        if (subSteps > 0) {
+            syncTransforms();
+        }
+        alpha = accumulator / stepTime;
+
+        metrics.subSteps.record(subSteps);
+        metrics.bodies.record(stepper.getBodyCount());
+        metrics.contacts.record(stepper.getContactCount());
+        metrics.proxies.record(stepper.getProxyCount());
+        metrics.listenerMillis.record(stepper.takeListenerNanos() / 1000000f);
+        metrics.frameMillis.record(TimeUtils.timeSinceNanos(frameStartTime) / 1000000f);
+    }
+
+    private void savePreviousState() {
+        for (int i = 0; i < syncTransforms.size; ++i) {
+            TransformComponent transform = syncTransforms.get(i);
+            transform.previousPosition.set(transform.position);
+            transform.previousAngle = transform.angle;
+        }
+    }
+
+    private void syncTransforms() {
+        for (int i = 0; i < syncPhysics.size; ++i) {
+            PhysicsComponent physics = syncPhysics.get(i);
+            if (physics.dormant) {
+                continue;
+            }
+            final float[] vals = physics.body.getTransform().vals;
+            TransformComponent transform = syncTransforms.get(i);
+
+            transform.position.set(vals[Transform.POS_X], vals[Transform.POS_Y]);
+            transform.angle = (float) Math.atan2(vals[Transform.SIN], vals[Transform.COS]) * MathUtils.radiansToDegrees;
+            transform.interpolate = true;
+        }
+    }
+
+    public void setTickRate(float tickRate) {
+        if (tickRate <= 0)
+            throw new IllegalArgumentException("tickRate must be positive: " + tickRate);
+        stepTime = 1f / tickRate;
+    }
+
+    public void setMaxSubSteps(int maxSubSteps) {
+        if (maxSubSteps < 1)
+            throw new IllegalArgumentException("maxSubSteps must be at least 1: " + maxSubSteps);
+        this.maxSubSteps = maxSubSteps;
+    }
+
+    /**
+     * Solver iterations of every step, fewer are cheaper but let stacks and joints go soft.
+     */
+    public void setIterations(int velocityIterations, int positionIterations) {
+        if (velocityIterations < 1 || positionIterations < 1)
+            throw new IllegalArgumentException("Iterations must be at least 1: " + velocityIterations + ", "
+                    + positionIterations);
+        this.velocityIterations = velocityIterations;
+        this.positionIterations = positionIterations;
+    }
+
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+    public float getStepTime() {
+        return stepTime;
+    }
+
+    public int getMaxSubSteps() {
+        return maxSubSteps;
+    }
+
+    /**
+     * Fraction of a step left in the accumulator, use it to blend from previous to current transform.
+     */
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public PhysicsMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Also times the contact listeners, see {@link PhysicsMetrics#listenerMillis}.
+     */
+    public void setListenerTimingEnabled(boolean enabled) {
+        stepper.setListenerTimingEnabled(enabled);
+    }
+
+    public int getSyncedBodyCount() {
+        return syncPhysics.size;
+    }
 }
\ No newline at end of file
@@ -19,29 +19,31 @@ package com.mygdx.game.systems;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.ai.fsm.State;
 import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.math.Vector2;
 import com.mygdx.game.components.*;
+import com.mygdx.game.utils.CharacterMotor;
 import com.mygdx.game.utils.Direction;
+import com.mygdx.game.utils.GdxKeyInput;
+import com.mygdx.game.utils.KeyInput;
 import com.mygdx.game.utils.Mappers;
 import com.mygdx.game.utils.PlayerAnimation;
+import com.mygdx.game.utils.SurfaceMaterial;
 
 
 public class PlayerSystem extends IteratingSystem {
 
     private static final float MIN_SQUARE_WALK_SPEED = 0.1f;
 
-    private static final float STAND_FRICTION = 100f;
-    private static final float WALK_FRICTION = 0.2f;
-
     private static final float WALK_SPEED = 1.5f;
     private static final float JUMP_SPEED = 3f;
 
+    private KeyInput input = GdxKeyInput.instance;
+
     public PlayerSystem() {
-        super(Family.all(PhysicsComponent.class,
+        super(Family.all(MotorComponent.class,
                 CharacterComponent.class,
                 TextureAnimatorComponent.class,
                 TextureComponent.class,
@@ -50,7 +52,13 @@ public class PlayerSystem extends IteratingSystem {
 
     @Override
     protected void processEntity(Entity entity, float deltaTime) {
-        Mappers.player.get(entity).stateMachine.update();
+        final PlayerComponent player = Mappers.player.get(entity);
+        player.input = input;
+        player.stateMachine.update();
+    }
+
+    public void setInput(KeyInput input) {
+        this.input = input;
     }
 
     public enum PlayerState implements State<Entity> {
@@ -64,17 +72,16 @@ public class PlayerSystem extends IteratingSystem {
 
             @Override
             public void update(Entity entity) {
-                PhysicsComponent physics = Mappers.physics.get(entity);
+                CharacterMotor motor = Mappers.motor.get(entity).motor;
                 CharacterComponent character = Mappers.character.get(entity);
                 PlayerComponent player = Mappers.player.get(entity);
 
-                Vector2 vel = physics.body.getLinearVelocity();
-                Vector2 pos = physics.body.getPosition();
+                Vector2 vel = motor.getVelocity();
 
-                handleGroundControl(physics, character, vel, pos);
+                handleGroundControl(player.input, motor, character, vel);
 
                 if (vel.len2() >= MIN_SQUARE_WALK_SPEED) {
-                    if (character.footContactsCount > 0)
+                    if (motor.isGrounded())
                         player.stateMachine.changeState(WALKING);
                     else
                         player.stateMachine.changeState(JUMPING);
@@ -92,19 +99,18 @@ public class PlayerSystem extends IteratingSystem {
 
             @Override
             public void update(Entity entity) {
-                PhysicsComponent physics = Mappers.physics.get(entity);
+                CharacterMotor motor = Mappers.motor.get(entity).motor;
                 CharacterComponent character = Mappers.character.get(entity);
                 PlayerComponent player = Mappers.player.get(entity);
 
-                Vector2 vel = physics.body.getLinearVelocity();
-                Vector2 pos = physics.body.getPosition();
+                Vector2 vel = motor.getVelocity();
 
-                handleGroundControl(physics, character, vel, pos);
+                handleGroundControl(player.input, motor, character, vel);
 
                 if (vel.len2() < MIN_SQUARE_WALK_SPEED)
                     player.stateMachine.changeState(IDLE);
 
-                if (character.footContactsCount <= 0)
+                if (!motor.isGrounded())
                     player.stateMachine.changeState(JUMPING);
             }
         },
@@ -116,23 +122,20 @@ public class PlayerSystem extends IteratingSystem {
                 animator.currentAnimation = PlayerAnimation.JUMPING;
                 animator.animationTime = 0;
 
-                for (int i = 0; i < Mappers.physics.get(entity).body.getFixtureList().size; ++i) {
-                    Mappers.physics.get(entity).body.getFixtureList().get(i).setFriction(0f);
-                }
+                Mappers.motor.get(entity).motor.setMaterial(SurfaceMaterial.CHARACTER_AIR);
             }
 
             @Override
             public void update(Entity entity) {
-                PhysicsComponent physics = Mappers.physics.get(entity);
+                CharacterMotor motor = Mappers.motor.get(entity).motor;
                 CharacterComponent character = Mappers.character.get(entity);
                 PlayerComponent player = Mappers.player.get(entity);
 
-                Vector2 vel = physics.body.getLinearVelocity();
-                Vector2 pos = physics.body.getPosition();
+                Vector2 vel = motor.getVelocity();
 
-                handleAirControl(physics, character, vel, pos);
+                handleAirControl(player.input, motor, character, vel);
 
-                if (character.footContactsCount > 0) {
+                if (motor.isGrounded()) {
                     if (vel.len2() < MIN_SQUARE_WALK_SPEED)
                         player.stateMachine.changeState(IDLE);
                     else
@@ -140,49 +143,35 @@ public class PlayerSystem extends IteratingSystem {
                 }
             }
 
-            private void handleAirControl(PhysicsComponent physics, CharacterComponent character, Vector2 vel, Vector2 pos) {
-                if (Gdx.input.isKeyPressed(Input.Keys.A) && vel.x > -1.5f) {
+            private void handleAirControl(KeyInput input, CharacterMotor motor, CharacterComponent character, Vector2 vel) {
+                if (input.isKeyPressed(Input.Keys.A) && vel.x > -1.5f) {
                     character.viewDirection = Direction.LEFT;
-                    float forceX = physics.body.getMass() * (-100f) / 60;
-                    physics.body.applyForce(forceX, 0, pos.x, pos.y, true);
+                    motor.accelerate(-100f / 60, 0);
                 }
-                if (Gdx.input.isKeyPressed(Input.Keys.D) && vel.x < 1.5f) {
+                if (input.isKeyPressed(Input.Keys.D) && vel.x < 1.5f) {
                     character.viewDirection = Direction.RIGHT;
-                    float forceX = physics.body.getMass() * (100f) / 60;
-                    physics.body.applyForce(forceX, 0, pos.x, pos.y, true);
+                    motor.accelerate(100f / 60, 0);
                 }
             }
         };
 
-        private static void setPlayerFriction(PhysicsComponent physics, CharacterComponent character, float friction) {
-            for (int i = 0; i < physics.body.getFixtureList().size; ++i) {
-                physics.body.getFixtureList().get(i).setFriction(friction);
-            }
-            for (int i = 0; i < character.footContacts.size; ++i) {
-                character.footContacts.get(i).resetFriction();
-            }
-        }
-
-        private static void handleGroundControl(PhysicsComponent physics, CharacterComponent character, Vector2 vel, Vector2 pos) {
-            if (Gdx.input.isKeyPressed(Input.Keys.A) || Gdx.input.isKeyPressed(Input.Keys.D))
-                setPlayerFriction(physics, character, WALK_FRICTION);
+        private static void handleGroundControl(KeyInput input, CharacterMotor motor, CharacterComponent character, Vector2 vel) {
+            if (input.isKeyPressed(Input.Keys.A) || input.isKeyPressed(Input.Keys.D))
+                motor.setMaterial(SurfaceMaterial.CHARACTER_WALK);
             else
-                setPlayerFriction(physics, character, STAND_FRICTION);
+                motor.setMaterial(SurfaceMaterial.CHARACTER_STAND);
 
-            if (Gdx.input.isKeyPressed(Input.Keys.A)) {
+            if (input.isKeyPressed(Input.Keys.A)) {
                 character.viewDirection = Direction.LEFT;
-                float impulseX = physics.body.getMass() * (-WALK_SPEED - vel.x);
-                physics.body.applyLinearImpulse(impulseX, 0, pos.x, pos.y, true);
+                motor.setVelocity(-WALK_SPEED, vel.y);
             }
-            if (Gdx.input.isKeyPressed(Input.Keys.D)) {
+            if (input.isKeyPressed(Input.Keys.D)) {
                 character.viewDirection = Direction.RIGHT;
-                float impulseX = physics.body.getMass() * (WALK_SPEED - vel.x);
-                physics.body.applyLinearImpulse(impulseX, 0, pos.x, pos.y, true);
+                motor.setVelocity(WALK_SPEED, vel.y);
             }
 
-            if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
-                float impulseY = physics.body.getMass() * (JUMP_SPEED - vel.y);
-                physics.body.applyLinearImpulse(0, impulseY, pos.x, pos.y, true);
+            if (input.isKeyJustPressed(Input.Keys.SPACE)) {
+                motor.setVelocity(vel.x, JUMP_SPEED);
             }
         }
 
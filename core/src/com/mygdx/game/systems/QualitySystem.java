@@ -0,0 +1,235 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.utils.Array;
+import com.mygdx.game.listeners.QualityListener;
+import com.mygdx.game.utils.QualityTier;
+import com.mygdx.game.utils.RollingHistogram;
+
+/**
+ * Steps through the {@link QualityTier}s to keep the frame time within budget.
+ * <p>
+ * Every frame's delta is recorded and once a full window of frames was seen in the current tier, its percentile
+ * decides. The thresholds are relative to the target frame time, by default the refresh interval of the display, so a
+ * 30 Hz device is not held to a 60 Hz budget. Above the downgrade threshold the next cheaper tier is applied, below the lower upgrade threshold the next
+ * better one. The gap between the thresholds and the fresh window after every change keep the tier from flapping.
+ * An upgrade that had to be taken back within two windows makes the next upgrade wait twice as long, up to
+ * {@link #MAX_UPGRADE_BACKOFF} windows, and an upgrade that held that long resets the wait again.
+ * <p>
+ * Runs first and applies tiers to the physics, debug, offscreen physics and animation systems it finds.
+ */
+public class QualitySystem extends EntitySystem {
+
+    public static final String TAG = QualitySystem.class.getName();
+
+    public static final int DEFAULT_WINDOW_SIZE = 120;
+    public static final float DEFAULT_PERCENTILE = 0.9f;
+    // of the target frame time, 20 and 17.5 ms at 60 Hz
+    public static final float DEFAULT_DOWNGRADE_RATIO = 1.2f;
+    public static final float DEFAULT_UPGRADE_RATIO = 1.05f;
+    // when the display does not tell its refresh rate
+    public static final int DEFAULT_REFRESH_RATE = 60;
+    public static final int MAX_UPGRADE_BACKOFF = 8;
+
+    private static final float BUCKET_MILLIS = 0.5f;
+    private static final int BUCKET_COUNT = 200;
+
+    private final QualityTier[] tiers = QualityTier.values();
+    private final RollingHistogram frameMillis;
+    private final Array<QualityListener> listeners = new Array<QualityListener>();
+
+    private float percentile = DEFAULT_PERCENTILE;
+    private float downgradeMillis;
+    private float upgradeMillis;
+
+    private int tier;
+    private boolean applied;
+    private int framesInTier;
+    private int upgradeBackoff = 1;
+    private boolean lastChangeWasUpgrade;
+    private int downgrades;
+    private int upgrades;
+
+    /**
+     * Targets the refresh rate of the current display.
+     */
+    public QualitySystem() {
+        this(getDisplayFrameMillis(), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param targetFrameMillis frame time budget the thresholds are derived from
+     */
+    public QualitySystem(float targetFrameMillis, int windowSize) {
+        super(-1);
+        if (targetFrameMillis <= 0)
+            throw new IllegalArgumentException("targetFrameMillis must be positive: " + targetFrameMillis);
+        frameMillis = new RollingHistogram(windowSize, BUCKET_MILLIS, BUCKET_COUNT);
+        setThresholds(targetFrameMillis * DEFAULT_DOWNGRADE_RATIO, targetFrameMillis * DEFAULT_UPGRADE_RATIO);
+    }
+
+    private static float getDisplayFrameMillis() {
+        final Graphics.DisplayMode displayMode = Gdx.graphics.getDisplayMode();
+        final int refreshRate = (displayMode != null && displayMode.refreshRate > 0)
+                ? displayMode.refreshRate : DEFAULT_REFRESH_RATE;
+        return 1000f / refreshRate;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        // systems added after this one get the tier too
+        applied = false;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        if (!applied) {
+            apply(tiers[tier]);
+            applied = true;
+        }
+        frameMillis.record(deltaTime * 1000f);
+        framesInTier++;
+
+        final int windowSize = frameMillis.getWindowSize();
+        if (lastChangeWasUpgrade && framesInTier == 2 * windowSize) {
+            // the last upgrade held
+            upgradeBackoff = 1;
+        }
+        if (framesInTier < windowSize) {
+            return;
+        }
+        final float millis = frameMillis.getPercentile(percentile);
+
+        if (millis > downgradeMillis && tier < tiers.length - 1) {
+            if (lastChangeWasUpgrade && framesInTier < 2 * windowSize) {
+                upgradeBackoff = Math.min(upgradeBackoff * 2, MAX_UPGRADE_BACKOFF);
+            }
+            downgrades++;
+            setTier(tier + 1, millis, false);
+        } else if (millis < upgradeMillis && tier > 0 && framesInTier >= upgradeBackoff * windowSize) {
+            upgrades++;
+            setTier(tier - 1, millis, true);
+        }
+    }
+
+    private void setTier(int index, float millis, boolean upgrade) {
+        final QualityTier previous = tiers[tier];
+        tier = index;
+        framesInTier = 0;
+        lastChangeWasUpgrade = upgrade;
+        frameMillis.clear();
+
+        apply(tiers[tier]);
+        Gdx.app.log(TAG, "Quality changed from " + previous + " to " + tiers[tier] + " at " + millis + " ms");
+        for (int i = 0; i < listeners.size; ++i) {
+            listeners.get(i).qualityChanged(previous, tiers[tier], millis);
+        }
+    }
+
+    private void apply(QualityTier quality) {
+        final Engine engine = getEngine();
+
+        final PhysicsSystem physicsSystem = engine.getSystem(PhysicsSystem.class);
+        if (physicsSystem != null) {
+            physicsSystem.setIterations(quality.velocityIterations, quality.positionIterations);
+        }
+        final PhysicsDebugSystem physicsDebugSystem = engine.getSystem(PhysicsDebugSystem.class);
+        if (physicsDebugSystem != null) {
+            physicsDebugSystem.setProcessing(quality.physicsDebug);
+        }
+        final OffscreenPhysicsSystem offscreenPhysicsSystem = engine.getSystem(OffscreenPhysicsSystem.class);
+        if (offscreenPhysicsSystem != null) {
+            offscreenPhysicsSystem.setMargin(quality.cullingMargin);
+        }
+        final TextureAnimatorSystem textureAnimatorSystem = engine.getSystem(TextureAnimatorSystem.class);
+        if (textureAnimatorSystem != null) {
+            textureAnimatorSystem.setOffscreenAnimation(quality.offscreenAnimation);
+            textureAnimatorSystem.setMargin(quality.cullingMargin);
+        }
+    }
+
+    public void addListener(QualityListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(QualityListener listener) {
+        listeners.removeValue(listener, true);
+    }
+
+    /**
+     * Frame time percentile above which the next cheaper tier is applied, and the lower one below which the next
+     * better tier is applied.
+     */
+    public void setThresholds(float downgradeMillis, float upgradeMillis) {
+        if (upgradeMillis <= 0 || downgradeMillis <= upgradeMillis)
+            throw new IllegalArgumentException("Thresholds need 0 < upgrade < downgrade: " + upgradeMillis + ", "
+                    + downgradeMillis);
+        this.downgradeMillis = downgradeMillis;
+        this.upgradeMillis = upgradeMillis;
+    }
+
+    public void setPercentile(float percentile) {
+        if (percentile <= 0 || percentile > 1)
+            throw new IllegalArgumentException("percentile must be in (0, 1]: " + percentile);
+        this.percentile = percentile;
+    }
+
+    /**
+     * Applies a tier right away, e.g. from a settings menu. Automatic changes continue from there.
+     */
+    public void setTier(QualityTier quality) {
+        if (quality.ordinal() != tier) {
+            setTier(quality.ordinal(), frameMillis.getPercentile(percentile), quality.ordinal() < tier);
+        }
+    }
+
+    public float getPercentile() {
+        return percentile;
+    }
+
+    public QualityTier getTier() {
+        return tiers[tier];
+    }
+
+    /**
+     * Frame times recorded in the current tier.
+     */
+    public RollingHistogram getFrameMillis() {
+        return frameMillis;
+    }
+
+    public float getFramePercentileMillis() {
+        return frameMillis.getPercentile(percentile);
+    }
+
+    public int getFramesInTier() {
+        return framesInTier;
+    }
+
+    public int getDowngrades() {
+        return downgrades;
+    }
+
+    public int getUpgrades() {
+        return upgrades;
+    }
+}
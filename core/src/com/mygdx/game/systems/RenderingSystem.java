@@ -16,78 +16,380 @@
 
 package com.mygdx.game.systems;
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.SortedIteratingSystem;
-import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.Sort;
 import com.mygdx.game.components.TextureComponent;
 import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.FlippedRegionCache;
 import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.SpatialHash;
+import com.mygdx.game.utils.VersionedCamera;
 
 import java.util.Comparator;
 
-
-public class RenderingSystem extends SortedIteratingSystem {
+/**
+ * Draws textured entities ordered by layer.
+ * <p>
+ * Sprite bounds live in a {@link SpatialHash}. Every frame they are recomputed only for sprites whose transform,
+ * interpolation state, scale or region size changed since the bounds were last computed, so static and sleeping
+ * sprites cost a few comparisons, and a moved sprite only costs a rehash when it crosses a cell border. Only the
+ * sprites overlapping the camera's frustum are drawn.
+ * <p>
+ * Every layer has a bucket and a sprite only changes buckets when its layer changes. The visible sprites are dropped
+ * into their buckets, which are drawn in layer order, so there is no sort across layers. Inside a bucket sprites are
+ * grouped by texture and otherwise keep the order they were added, comparing cached numbers only. Sprites from the
+ * same atlas page are drawn together, so the batch only flushes when the texture or the layer changes.
+ */
+public class RenderingSystem extends EntitySystem implements EntityListener {
 
     public static final float PIXEL_PER_UNIT = 100.0f;
 
+    private static final float CELL_SIZE = 2f;
+
+    private final Family family = Family.all(TextureComponent.class, TransformComponent.class).get();
+
+    private static class Renderable {
+        Entity entity;
+        TransformComponent transform;
+        TextureComponent sprite;
+        SpatialHash.Entry<Renderable> entry;
+        LayerBucket bucket;
+        Texture texture;
+        int textureKey;
+        // keeps sprites of the same layer and texture in the order they were added
+        int order;
+
+        // what the bounds in the hash were computed from
+        boolean boundsValid;
+        float x, y, angle;
+        boolean interpolate;
+        float previousX, previousY, previousAngle;
+        float scaleX, scaleY;
+        int regionWidth, regionHeight;
+    }
+
+    private static class LayerBucket {
+        final int layer;
+        final Array<Renderable> visible = new Array<Renderable>();
+
+        LayerBucket(int layer) {
+            this.layer = layer;
+        }
+    }
+
+    // unordered so removal is a swap with the last element
+    private final Array<Renderable> renderables = new Array<Renderable>(false, 16);
+    private final SpatialHash<Renderable> spatialHash = new SpatialHash<Renderable>(CELL_SIZE);
+    private int nextOrder;
+
+    // sorted by layer, only grows when a sprite uses a layer for the first time
+    private final Array<LayerBucket> buckets = new Array<LayerBucket>();
+    private final IntMap<LayerBucket> bucketsByLayer = new IntMap<LayerBucket>();
+
+    // textures numbered in the order they are first seen
+    private final ObjectIntMap<Texture> textureKeys = new ObjectIntMap<Texture>();
+    private final FlippedRegionCache flippedRegions = new FlippedRegionCache();
+
     private SpriteBatch batch;
-    private Camera camera;
+    private VersionedCamera camera;
+
+    private Array<Renderable> renderQueue = new Array<Renderable>();
+    private final Comparator<Renderable> comparator = new TextureComparator();
+
+    // bounds of the camera's frustum, recomputed when the camera changes
+    private int viewVersion = -1;
+    private float viewMinX, viewMinY, viewMaxX, viewMaxY;
 
-    private Array<Entity> renderQueue = new Array<Entity>();
+    private int drawnCount;
+    private int culledCount;
+    private int renderCalls;
+    private int textureSwitches;
 
-    public RenderingSystem(SpriteBatch batch, Camera camera) {
-        super(Family.all(TextureComponent.class, TransformComponent.class).get(), new LayerComparator(), 3);
+    public RenderingSystem(SpriteBatch batch, VersionedCamera camera) {
+        super(3);
 
         this.batch = batch;
         this.camera = camera;
     }
 
+    @Override
+    public void addedToEngine(Engine engine) {
+        engine.addEntityListener(family, this);
+
+        ImmutableArray<Entity> entities = engine.getEntitiesFor(family);
+        for (int i = 0; i < entities.size(); ++i) {
+            entityAdded(entities.get(i));
+        }
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+
+        renderables.clear();
+        spatialHash.clear();
+        buckets.clear();
+        bucketsByLayer.clear();
+        textureKeys.clear();
+        flippedRegions.clear();
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
+        Renderable renderable = new Renderable();
+        renderable.entity = entity;
+        renderable.transform = Mappers.transform.get(entity);
+        renderable.sprite = Mappers.sprite.get(entity);
+        renderable.order = nextOrder++;
+        renderable.entry = spatialHash.add(renderable, 0, 0, 0, 0);
+        renderable.bucket = getBucket(renderable.sprite.layer);
+        renderables.add(renderable);
+    }
+
+    @Override
+    public void entityRemoved(Entity entity) {
+        for (int i = 0; i < renderables.size; ++i) {
+            if (renderables.get(i).entity == entity) {
+                spatialHash.remove(renderables.removeIndex(i).entry);
+                return;
+            }
+        }
+    }
+
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
+        for (int i = 0; i < renderables.size; ++i) {
+            Renderable renderable = renderables.get(i);
+            if (renderable.sprite.layer != renderable.bucket.layer) {
+                renderable.bucket = getBucket(renderable.sprite.layer);
+            }
+            if (boundsChanged(renderable)) {
+                updateBounds(renderable);
+            }
+        }
+
+        queryFrustum();
+        drawnCount = renderQueue.size;
+        culledCount = renderables.size - drawnCount;
+        for (int i = 0; i < renderQueue.size; ++i) {
+            Renderable renderable = renderQueue.get(i);
+            // animations can move a sprite to another atlas page
+            final Texture texture = renderable.sprite.region.getTexture();
+            if (texture != renderable.texture) {
+                renderable.texture = texture;
+                renderable.textureKey = getTextureKey(texture);
+            }
+            renderable.bucket.visible.add(renderable);
+        }
+        renderQueue.clear();
+
+        final PhysicsSystem physicsSystem = getEngine().getSystem(PhysicsSystem.class);
+        final float alpha = (physicsSystem != null) ? physicsSystem.getAlpha() : 1f;
 
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
-        for (int i = 0; i < renderQueue.size; ++i) {
-            Entity entity = renderQueue.get(i);
+        Texture lastTexture = null;
+        textureSwitches = 0;
+        for (int i = 0; i < buckets.size; ++i) {
+            Array<Renderable> visible = buckets.get(i).visible;
+            if (visible.size == 0) {
+                continue;
+            }
+            Sort.instance().sort(visible, comparator);
+            for (int j = 0; j < visible.size; ++j) {
+                Renderable renderable = visible.get(j);
+                if (renderable.texture != lastTexture) {
+                    lastTexture = renderable.texture;
+                    textureSwitches++;
+                }
+                draw(renderable, alpha);
+            }
+            visible.clear();
+        }
+        batch.end();
+        renderCalls = batch.renderCalls;
+    }
+
+    private void draw(Renderable renderable, float alpha) {
+        TransformComponent transform = renderable.transform;
+        TextureComponent sprite = renderable.sprite;
+
+        // atlas regions are shared, draw a flipped copy instead of flipping them
+        final TextureRegion region = flippedRegions.get(sprite.region, sprite.flipX, sprite.flipY);
+
+        final float width = region.getRegionWidth();
+        final float height = region.getRegionHeight();
+
+        final float originX = width / 2;
+        final float originY = height / 2;
+
+        float x = transform.position.x;
+        float y = transform.position.y;
+        float angle = transform.angle;
+        if (transform.interpolate) {
+            x = MathUtils.lerp(transform.previousPosition.x, x, alpha);
+            y = MathUtils.lerp(transform.previousPosition.y, y, alpha);
+            angle = MathUtils.lerpAngleDeg(transform.previousAngle, angle, alpha);
+        }
+
+        batch.draw(region, x - originX, y - originY,
+                originX, originY,
+                width, height,
+                transform.scale.x / PIXEL_PER_UNIT, transform.scale.y / PIXEL_PER_UNIT, angle);
+    }
+
+    /**
+     * Whether anything the bounds depend on changed since they were computed, remembers the new state if so.
+     */
+    private boolean boundsChanged(Renderable renderable) {
+        final TransformComponent transform = renderable.transform;
+        final TextureRegion region = renderable.sprite.region;
+        final boolean interpolate = transform.interpolate;
+
+        if (renderable.boundsValid
+                && renderable.x == transform.position.x && renderable.y == transform.position.y
+                && renderable.angle == transform.angle && renderable.interpolate == interpolate
+                && (!interpolate || (renderable.previousX == transform.previousPosition.x
+                && renderable.previousY == transform.previousPosition.y
+                && renderable.previousAngle == transform.previousAngle))
+                && renderable.scaleX == transform.scale.x && renderable.scaleY == transform.scale.y
+                && renderable.regionWidth == region.getRegionWidth()
+                && renderable.regionHeight == region.getRegionHeight()) {
+            return false;
+        }
+
+        renderable.boundsValid = true;
+        renderable.x = transform.position.x;
+        renderable.y = transform.position.y;
+        renderable.angle = transform.angle;
+        renderable.interpolate = interpolate;
+        renderable.previousX = transform.previousPosition.x;
+        renderable.previousY = transform.previousPosition.y;
+        renderable.previousAngle = transform.previousAngle;
+        renderable.scaleX = transform.scale.x;
+        renderable.scaleY = transform.scale.y;
+        renderable.regionWidth = region.getRegionWidth();
+        renderable.regionHeight = region.getRegionHeight();
+        return true;
+    }
 
-            TransformComponent transform = Mappers.transform.get(entity);
-            TextureComponent sprite = Mappers.sprite.get(entity);
+    private void updateBounds(Renderable renderable) {
+        TransformComponent transform = renderable.transform;
+        TextureComponent sprite = renderable.sprite;
 
-            final float width = sprite.region.getRegionWidth();
-            final float height = sprite.region.getRegionHeight();
+        float halfWidth = sprite.region.getRegionWidth() * Math.abs(transform.scale.x) / PIXEL_PER_UNIT / 2;
+        float halfHeight = sprite.region.getRegionHeight() * Math.abs(transform.scale.y) / PIXEL_PER_UNIT / 2;
+        if (transform.angle != 0 || (transform.interpolate && transform.previousAngle != 0)) {
+            // any rotation fits in the circle around the sprite
+            halfWidth = halfHeight = (float) Math.sqrt(halfWidth * halfWidth + halfHeight * halfHeight);
+        }
 
-            final float originX = width / 2;
-            final float originY = height / 2;
+        float minX = transform.position.x;
+        float minY = transform.position.y;
+        float maxX = minX;
+        float maxY = minY;
+        if (transform.interpolate) {
+            // drawn anywhere between the previous and the current position
+            minX = Math.min(minX, transform.previousPosition.x);
+            minY = Math.min(minY, transform.previousPosition.y);
+            maxX = Math.max(maxX, transform.previousPosition.x);
+            maxY = Math.max(maxY, transform.previousPosition.y);
+        }
+        spatialHash.update(renderable.entry, minX - halfWidth, minY - halfHeight, maxX + halfWidth, maxY + halfHeight);
+    }
 
-            if (sprite.region.isFlipX() != sprite.flipX) {
-                sprite.region.flip(true, false);
+    private void queryFrustum() {
+        if (camera.getVersion() != viewVersion) {
+            viewVersion = camera.getVersion();
+            final Vector3[] points = camera.frustum.planePoints;
+            viewMinX = viewMaxX = points[0].x;
+            viewMinY = viewMaxY = points[0].y;
+            for (int i = 1; i < points.length; ++i) {
+                viewMinX = Math.min(viewMinX, points[i].x);
+                viewMinY = Math.min(viewMinY, points[i].y);
+                viewMaxX = Math.max(viewMaxX, points[i].x);
+                viewMaxY = Math.max(viewMaxY, points[i].y);
             }
-            if (sprite.region.isFlipY() != sprite.flipY) {
-                sprite.region.flip(false, true);
+        }
+        spatialHash.query(viewMinX, viewMinY, viewMaxX, viewMaxY, renderQueue);
+    }
+
+    /**
+     * Number of entities drawn in the last frame.
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * Number of entities skipped in the last frame for being outside the camera's view.
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    private LayerBucket getBucket(int layer) {
+        LayerBucket bucket = bucketsByLayer.get(layer);
+        if (bucket == null) {
+            bucket = new LayerBucket(layer);
+            bucketsByLayer.put(layer, bucket);
+            int index = 0;
+            while (index < buckets.size && buckets.get(index).layer < layer) {
+                index++;
             }
+            buckets.insert(index, bucket);
+        }
+        return bucket;
+    }
 
-            batch.draw(sprite.region, transform.position.x - originX, transform.position.y - originY,
-                    originX, originY,
-                    width, height,
-                    transform.scale.x / PIXEL_PER_UNIT, transform.scale.y / PIXEL_PER_UNIT, transform.angle);
+    private int getTextureKey(Texture texture) {
+        int key = textureKeys.get(texture, -1);
+        if (key < 0) {
+            key = textureKeys.size;
+            textureKeys.put(texture, key);
         }
-        batch.end();
-        renderQueue.clear();
+        return key;
     }
 
-    @Override
-    protected void processEntity(Entity entity, float deltaTime) {
-        renderQueue.add(entity);
+    public int getLayerCount() {
+        return buckets.size;
     }
 
-    private static class LayerComparator implements Comparator<Entity> {
+    /**
+     * Number of times the batch was flushed to the GPU in the last frame.
+     */
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    /**
+     * Number of times the texture changed between two sprites in the last frame, counting the first one.
+     */
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    private static class TextureComparator implements Comparator<Renderable> {
         @Override
-        public int compare(Entity e1, Entity e2) {
-            return Mappers.sprite.get(e1).layer - Mappers.sprite.get(e2).layer;
+        public int compare(Renderable r1, Renderable r2) {
+            if (r1.textureKey != r2.textureKey) {
+                return r1.textureKey - r2.textureKey;
+            }
+            // the visible set comes out of the hash in no particular order
+            return r1.order - r2.order;
         }
     }
 }
@@ -16,27 +16,159 @@
 
 package com.mygdx.game.systems;
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.mygdx.game.components.CameraHelperComponent;
 import com.mygdx.game.components.TextureAnimatorComponent;
 import com.mygdx.game.components.TextureComponent;
 import com.mygdx.game.components.TransformComponent;
 import com.mygdx.game.utils.Mappers;
 
-public class TextureAnimatorSystem extends IteratingSystem {
+/**
+ * Advances animations and picks their frames.
+ * <p>
+ * Animations are looked up by the ordinal of their name. Every animator remembers the frame on display and the
+ * animation time span it covers, so most updates only add the delta and compare it against that span; the frame is
+ * only looked up again once the time leaves it or the animation changes. The animators are kept in arrays, so that
+ * check costs no component lookups. Entities outside the margin of every camera
+ * view can be left on their current frame while their animation time keeps running, so they show the right frame
+ * again once they are close.
+ */
+public class TextureAnimatorSystem extends EntitySystem implements EntityListener {
+
+    private static final float DEFAULT_MARGIN = 4f;
+
+    private final Family family =
+            Family.all(TextureAnimatorComponent.class, TransformComponent.class, TextureComponent.class).get();
+    private final Family cameraFamily = Family.all(CameraHelperComponent.class).get();
+
+    // parallel arrays of the animated entities, unordered so removal is a swap with the last element
+    private final Array<Entity> entities = new Array<Entity>(false, 16);
+    private final Array<TextureAnimatorComponent> animators = new Array<TextureAnimatorComponent>(false, 16);
+    private final Array<TextureComponent> sprites = new Array<TextureComponent>(false, 16);
+    private final Array<TransformComponent> transforms = new Array<TransformComponent>(false, 16);
+
+    private ImmutableArray<Entity> cameras;
+
+    private boolean offscreenAnimation = true;
+    private float margin = DEFAULT_MARGIN;
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        cameras = engine.getEntitiesFor(cameraFamily);
+        engine.addEntityListener(family, this);
+
+        ImmutableArray<Entity> entities = engine.getEntitiesFor(family);
+        for (int i = 0; i < entities.size(); ++i) {
+            entityAdded(entities.get(i));
+        }
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+        cameras = null;
+
+        entities.clear();
+        animators.clear();
+        sprites.clear();
+        transforms.clear();
+    }
+
+    @Override
+    public void entityAdded(Entity entity) {
+        entities.add(entity);
+        animators.add(Mappers.animator.get(entity));
+        sprites.add(Mappers.sprite.get(entity));
+        transforms.add(Mappers.transform.get(entity));
+    }
 
-    public TextureAnimatorSystem() {
-        super(Family.all(TextureAnimatorComponent.class, TransformComponent.class, TextureComponent.class).get());
+    @Override
+    public void entityRemoved(Entity entity) {
+        final int index = entities.indexOf(entity, true);
+        if (index >= 0) {
+            entities.removeIndex(index);
+            animators.removeIndex(index);
+            sprites.removeIndex(index);
+            transforms.removeIndex(index);
+        }
     }
 
     @Override
-    protected void processEntity(Entity entity, float deltaTime) {
-        TextureComponent sprite = Mappers.sprite.get(entity);
-        TextureAnimatorComponent animator = Mappers.animator.get(entity);
+    public void update(float deltaTime) {
+        // without cameras everything counts as on screen
+        final boolean cullOffscreen = !offscreenAnimation && cameras.size() > 0;
+        for (int i = 0; i < animators.size; ++i) {
+            final TextureAnimatorComponent animator = animators.get(i);
+
+            if (!animator.freeze) animator.animationTime += deltaTime;
+
+            if (animator.currentAnimation == animator.shownAnimation
+                    && animator.animationTime >= animator.frameStartTime
+                    && animator.animationTime < animator.frameEndTime) {
+                continue;
+            }
+            if (cullOffscreen) {
+                final TransformComponent transform = transforms.get(i);
+                if (!CameraHelperSystem.isInRange(cameras, transform.position.x, transform.position.y, margin)) {
+                    continue;
+                }
+            }
+            showFrame(animator, sprites.get(i));
+        }
+    }
+
+    private void showFrame(TextureAnimatorComponent animator, TextureComponent sprite) {
+        final Animation<TextureRegion> animation = animator.animations[animator.currentAnimation.ordinal()];
+        final float frameDuration = animation.getFrameDuration();
+        // the key frame array is created as Object[] and cannot be read as regions directly
+        final int frameCount = Math.round(animation.getAnimationDuration() / frameDuration);
+        final float time = animator.animationTime;
+        final int frameIndex = animation.getKeyFrameIndex(time);
+
+        // every play mode changes frames on multiples of the frame duration only
+        final int frameNumber = (int) (time / frameDuration);
+        final boolean looping = animation.getPlayMode() != Animation.PlayMode.NORMAL
+                && animation.getPlayMode() != Animation.PlayMode.REVERSED;
+        if (frameCount == 1) {
+            animator.frameStartTime = 0;
+            animator.frameEndTime = Float.MAX_VALUE;
+        } else if (!looping && frameNumber >= frameCount - 1) {
+            // stays on its last frame
+            animator.frameStartTime = (frameCount - 1) * frameDuration;
+            animator.frameEndTime = Float.MAX_VALUE;
+        } else {
+            animator.frameStartTime = frameNumber * frameDuration;
+            animator.frameEndTime = (frameNumber + 1) * frameDuration;
+        }
 
-        if (!animator.freeze) animator.animationTime += deltaTime;
+        if (frameIndex != animator.frameIndex || animator.currentAnimation != animator.shownAnimation) {
+            sprite.region = animation.getKeyFrame(time);
+        }
+        animator.shownAnimation = animator.currentAnimation;
+        animator.frameIndex = frameIndex;
+    }
+
+    public void setOffscreenAnimation(boolean offscreenAnimation) {
+        this.offscreenAnimation = offscreenAnimation;
+    }
+
+    public boolean isOffscreenAnimation() {
+        return offscreenAnimation;
+    }
+
+    public void setMargin(float margin) {
+        this.margin = margin;
+    }
 
-        sprite.region = animator.animations.get(animator.currentAnimation).getKeyFrame(animator.animationTime);
+    public float getMargin() {
+        return margin;
     }
 }
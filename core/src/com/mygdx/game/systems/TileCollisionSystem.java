@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.systems;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.mygdx.game.components.TileBodyComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.MaterialTable;
+import com.mygdx.game.utils.SurfaceMaterial;
+import com.mygdx.game.utils.TileCollisionGrid;
+
+/**
+ * Moves {@link TileBodyComponent} boxes against the level's tile grid, one axis at a time so they slide along walls
+ * and floors. Sweeps cover the whole distance of a step, so fast boxes can't tunnel. Boxes don't collide with each
+ * other.
+ */
+public class TileCollisionSystem extends IteratingSystem {
+
+    private static final float MAX_STEP_TIME = 0.25f;
+
+    private final TileCollisionGrid grid;
+    private final MaterialTable materials = new MaterialTable();
+    private float gravity = -9.8f;
+
+    public TileCollisionSystem(TileCollisionGrid grid) {
+        super(Family.all(TileBodyComponent.class, TransformComponent.class).get());
+        this.grid = grid;
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+        final float stepTime = Math.min(deltaTime, MAX_STEP_TIME);
+        final TileBodyComponent body = Mappers.tileBody.get(entity);
+        final TransformComponent transform = Mappers.transform.get(entity);
+
+        float velocityX = body.velocity.x + body.acceleration.x * stepTime;
+        float velocityY = body.velocity.y + (body.acceleration.y + gravity) * stepTime;
+        body.acceleration.setZero();
+
+        if (body.grounded) {
+            // the friction Box2D would apply between the character's material and the ground
+            final float friction = materials.getFriction(body.material, SurfaceMaterial.GROUND);
+            final float slowdown = friction * -gravity * stepTime;
+            velocityX = (Math.abs(velocityX) <= slowdown) ? 0 : velocityX - Math.signum(velocityX) * slowdown;
+        }
+
+        float x = transform.position.x;
+        float y = transform.position.y + body.offsetY;
+
+        final float dx = grid.sweepX(x - body.halfWidth, y - body.halfHeight, x + body.halfWidth, y + body.halfHeight,
+                velocityX * stepTime);
+        if (dx != velocityX * stepTime) {
+            velocityX = 0;
+        }
+        x += dx;
+
+        final float dy = grid.sweepY(x - body.halfWidth, y - body.halfHeight, x + body.halfWidth, y + body.halfHeight,
+                velocityY * stepTime);
+        body.grounded = velocityY <= 0 && dy != velocityY * stepTime;
+        if (dy != velocityY * stepTime) {
+            velocityY = 0;
+        }
+        y += dy;
+
+        body.velocity.set(velocityX, velocityY);
+        transform.position.set(x, y - body.offsetY);
+    }
+
+    public void setGravity(float gravity) {
+        this.gravity = gravity;
+    }
+
+    public TileCollisionGrid getGrid() {
+        return grid;
+    }
+}
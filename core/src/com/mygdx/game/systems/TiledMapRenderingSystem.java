@@ -19,15 +19,29 @@ package com.mygdx.game.systems;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
-import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
 import com.mygdx.game.components.TiledMapComponent;
 import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.TiledMapCache;
+import com.mygdx.game.utils.VersionedCamera;
 
+/**
+ * Draws the map layers in order. Tile layers come from the map's {@link TiledMapCache}, only the chunks in view,
+ * image layers go through the map renderer.
+ */
 public class TiledMapRenderingSystem extends IteratingSystem {
 
-    private OrthographicCamera camera;
+    private VersionedCamera camera;
+
+    // view bounds and renderer view, recomputed when the camera changes
+    private int viewVersion = -1;
+    private float minX, minY, maxX, maxY;
+    private boolean rendererViewSet;
 
-    public TiledMapRenderingSystem(OrthographicCamera camera) {
+    public TiledMapRenderingSystem(VersionedCamera camera) {
         super(Family.all(TiledMapComponent.class).get(), 2);
         this.camera = camera;
     }
@@ -35,7 +49,59 @@ public class TiledMapRenderingSystem extends IteratingSystem {
     @Override
     protected void processEntity(Entity entity, float deltaTime) {
         TiledMapComponent tiledMap = Mappers.tiledMap.get(entity);
-        tiledMap.renderer.setView(camera);
-        tiledMap.renderer.render();
+        if (tiledMap.cache == null) {
+            tiledMap.renderer.setView(camera);
+            tiledMap.renderer.render();
+            return;
+        }
+
+        TiledMapCache cache = tiledMap.cache;
+        cache.update();
+
+        if (camera.getVersion() != viewVersion) {
+            viewVersion = camera.getVersion();
+            final float halfWidth = camera.viewportWidth * camera.zoom * 0.5f;
+            final float halfHeight = camera.viewportHeight * camera.zoom * 0.5f;
+            minX = camera.position.x - halfWidth;
+            minY = camera.position.y - halfHeight;
+            maxX = camera.position.x + halfWidth;
+            maxY = camera.position.y + halfHeight;
+            rendererViewSet = false;
+        }
+
+        boolean cacheActive = false;
+        MapLayers layers = tiledMap.renderer.getMap().getLayers();
+        for (int i = 0; i < layers.getCount(); ++i) {
+            MapLayer layer = layers.get(i);
+            if (!layer.isVisible()) {
+                continue;
+            }
+            if (cache.isCached(layer)) {
+                if (!cacheActive) {
+                    cache.begin(camera);
+                    cacheActive = true;
+                }
+                cache.draw(layer, minX, minY, maxX, maxY);
+            } else if (layer instanceof TiledMapImageLayer) {
+                if (cacheActive) {
+                    cache.end();
+                    cacheActive = false;
+                }
+                Batch batch = tiledMap.renderer.getBatch();
+                if (!rendererViewSet) {
+                    tiledMap.renderer.setView(camera);
+                    rendererViewSet = true;
+                } else {
+                    // the batch is shared with other systems that set their own projection
+                    batch.setProjectionMatrix(camera.combined);
+                }
+                batch.begin();
+                tiledMap.renderer.renderImageLayer((TiledMapImageLayer) layer);
+                batch.end();
+            }
+        }
+        if (cacheActive) {
+            cache.end();
+        }
     }
 }
@@ -24,6 +24,6 @@ public class AnimatorUtils {
     }
 
     public static boolean isFinished(TextureAnimatorComponent animator, Enum animationName) {
-        return animator.animations.get(animationName).isAnimationFinished(animator.animationTime);
+        return animator.animations[animationName.ordinal()].isAnimationFinished(animator.animationTime);
     }
 }
@@ -0,0 +1,151 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Keeps deactivated bodies of each {@link BodyPrefab} of one world, so they can be repositioned and re-enabled
+ * instead of destroyed and created again.
+ */
+public class BodyPool implements Disposable {
+
+    public static final String TAG = BodyPool.class.getName();
+
+    private static final int DEFAULT_MAX_FREE = 32;
+
+    private final World world;
+    private final int maxFree;
+    private final ObjectMap<BodyPrefab, Array<Body>> freeBodies = new ObjectMap<BodyPrefab, Array<Body>>();
+
+    private int hits;
+    private int misses;
+
+    public BodyPool(World world) {
+        this(world, DEFAULT_MAX_FREE);
+    }
+
+    /**
+     * @param maxFree number of deactivated bodies kept per prefab, further bodies are destroyed
+     */
+    public BodyPool(World world, int maxFree) {
+        if (maxFree < 0) {
+            throw new IllegalArgumentException("maxFree must not be negative: " + maxFree);
+        }
+        this.world = world;
+        this.maxFree = maxFree;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns an active body of the prefab at the given position, at rest and with fresh fixture data.
+     */
+    public Body obtain(BodyPrefab prefab, float x, float y, float angle) {
+        Array<Body> bodies = freeBodies.get(prefab);
+        if (bodies == null || bodies.size == 0) {
+            misses++;
+            return prefab.create(world, x, y, angle);
+        }
+        hits++;
+
+        Body body = bodies.pop();
+        prefab.resetFixtureData(body);
+        body.setTransform(x, y, angle * MathUtils.degreesToRadians);
+        body.setLinearVelocity(0, 0);
+        body.setAngularVelocity(0);
+        body.setActive(true);
+        body.setAwake(true);
+        return body;
+    }
+
+    /**
+     * Deactivates the body and keeps it for the next {@link #obtain} of the prefab.
+     */
+    public void free(BodyPrefab prefab, Body body) {
+        if (body.getWorld() != world) {
+            // handed over to another world since it was obtained
+            body.getWorld().destroyBody(body);
+            return;
+        }
+        Array<Body> bodies = freeBodies.get(prefab);
+        if (bodies == null) {
+            bodies = new Array<Body>(false, 16);
+            freeBodies.put(prefab, bodies);
+        }
+        if (bodies.size >= maxFree) {
+            world.destroyBody(body);
+            return;
+        }
+        body.setActive(false);
+        bodies.add(body);
+    }
+
+    public int getFreeCount(BodyPrefab prefab) {
+        Array<Body> bodies = freeBodies.get(prefab);
+        return (bodies == null) ? 0 : bodies.size;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Fraction of {@link #obtain} calls served by a pooled body.
+     */
+    public float getHitRate() {
+        final int total = hits + misses;
+        return (total == 0) ? 0 : (float) hits / total;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Destroys all pooled bodies.
+     */
+    public void clear() {
+        for (Array<Body> bodies : freeBodies.values()) {
+            for (int i = 0; i < bodies.size; ++i) {
+                world.destroyBody(bodies.get(i));
+            }
+            bodies.clear();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (hits + misses > 0) {
+            Gdx.app.log(TAG, "Obtained " + (hits + misses) + " bodies, hit rate " + getHitRate());
+        }
+        clear();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Named template for a body and its fixtures. Shapes and defs are built once and owned by the prefab.
+ * <p>
+ * Fixtures of the same {@link FixtureType} share one {@link FixtureData} per body, so every spawn gets fresh data
+ * and contact events of a previous owner can never reach the new one.
+ */
+public class BodyPrefab implements Disposable {
+
+    public final String name;
+
+    private final BodyDef bodyDef = new BodyDef();
+    private final Array<FixtureDef> fixtureDefs = new Array<FixtureDef>();
+    private final Array<FixtureType> fixtureTypes = new Array<FixtureType>();
+    private final Array<SurfaceMaterial> materials = new Array<SurfaceMaterial>();
+
+    public BodyPrefab(String name, BodyDef.BodyType type, boolean fixedRotation) {
+        this.name = name;
+        bodyDef.type = type;
+        bodyDef.fixedRotation = fixedRotation;
+    }
+
+    /**
+     * Adds a fixture built from the given shape, the prefab takes ownership of the shape.
+     */
+    public BodyPrefab addFixture(Shape shape, float density, float friction, float restitution, boolean sensor,
+                                 FixtureType type, SurfaceMaterial material) {
+        FixtureDef fixtureDef = new FixtureDef();
+        fixtureDef.shape = shape;
+        fixtureDef.density = density;
+        fixtureDef.friction = friction;
+        fixtureDef.restitution = restitution;
+        fixtureDef.isSensor = sensor;
+
+        fixtureDefs.add(fixtureDef);
+        fixtureTypes.add(type);
+        materials.add(material);
+        return this;
+    }
+
+    // the body def is shared, prefabs may be used by worlds on different threads
+    public synchronized Body create(World world, float x, float y, float angle) {
+        bodyDef.position.set(x, y);
+        bodyDef.angle = angle * MathUtils.degreesToRadians;
+
+        Body body = world.createBody(bodyDef);
+        for (int i = 0; i < fixtureDefs.size; ++i) {
+            body.createFixture(fixtureDefs.get(i));
+        }
+        resetFixtureData(body);
+        return body;
+    }
+
+    /**
+     * Gives the fixtures of a body created by this prefab new {@link FixtureData}.
+     */
+    public void resetFixtureData(Body body) {
+        Array<Fixture> fixtures = body.getFixtureList();
+        for (int i = 0; i < fixtures.size; ++i) {
+            FixtureData fixtureData = null;
+            for (int j = 0; j < i && fixtureData == null; ++j) {
+                if (fixtureTypes.get(j) == fixtureTypes.get(i)) {
+                    fixtureData = (FixtureData) fixtures.get(j).getUserData();
+                }
+            }
+            if (fixtureData == null) {
+                fixtureData = new FixtureData(fixtureTypes.get(i));
+                fixtureData.material = materials.get(i);
+            }
+            fixtures.get(i).setUserData(fixtureData);
+        }
+    }
+
+    /**
+     * Sets the owner of every fixture of the body.
+     */
+    public static void setEntity(Body body, Entity entity) {
+        Array<Fixture> fixtures = body.getFixtureList();
+        for (int i = 0; i < fixtures.size; ++i) {
+            FixtureData fixtureData = (FixtureData) fixtures.get(i).getUserData();
+            if (fixtureData != null) {
+                fixtureData.entity = entity;
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < fixtureDefs.size; ++i) {
+            fixtureDefs.get(i).shape.dispose();
+        }
+        fixtureDefs.clear();
+    }
+}
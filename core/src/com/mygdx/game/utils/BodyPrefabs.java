@@ -0,0 +1,94 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Registry of the game's {@link BodyPrefab}s.
+ */
+public class BodyPrefabs {
+
+    public static final String PLAYER = "player";
+
+    public static final float PLAYER_WIDTH = 0.45f;
+    public static final float PLAYER_HEIGHT = 0.67f;
+    // lowest point of the player's shapes relative to the body origin
+    public static final float PLAYER_BOTTOM = -0.38f;
+
+    private static final ObjectMap<String, BodyPrefab> prefabs = new ObjectMap<String, BodyPrefab>();
+
+    private BodyPrefabs() {
+    }
+
+    public static void init() {
+        register(createPlayer());
+    }
+
+    public static void register(BodyPrefab prefab) {
+        if (prefabs.containsKey(prefab.name)) {
+            throw new IllegalArgumentException("Prefab already registered: " + prefab.name);
+        }
+        prefabs.put(prefab.name, prefab);
+    }
+
+    public static BodyPrefab get(String name) {
+        BodyPrefab prefab = prefabs.get(name);
+        if (prefab == null) {
+            throw new GdxRuntimeException("Unknown prefab: " + name);
+        }
+        return prefab;
+    }
+
+    public static void dispose() {
+        for (BodyPrefab prefab : prefabs.values()) {
+            prefab.dispose();
+        }
+        prefabs.clear();
+    }
+
+    private static BodyPrefab createPlayer() {
+        final float halfBoxWidth = PLAYER_WIDTH / 2;
+        final float halfBoxHeight = (PLAYER_HEIGHT - halfBoxWidth) / 2;
+
+        final Vector2 fixtureOffset = new Vector2(0f, PLAYER_BOTTOM + halfBoxWidth);
+
+        final Vector2 boxPosition = new Vector2(0, halfBoxHeight).add(fixtureOffset);
+        final Vector2 circlePosition = new Vector2().add(fixtureOffset);
+        final Vector2 sensorPosition = new Vector2(0, -halfBoxWidth).add(fixtureOffset);
+
+        PolygonShape box = new PolygonShape();
+        box.setAsBox(halfBoxWidth, halfBoxHeight, boxPosition, 0f);
+
+        CircleShape circle = new CircleShape();
+        circle.setRadius(halfBoxWidth);
+        circle.setPosition(circlePosition);
+
+        PolygonShape footSensor = new PolygonShape();
+        footSensor.setAsBox(PLAYER_WIDTH / 5, PLAYER_WIDTH / 20, sensorPosition, 0f);
+
+        return new BodyPrefab(PLAYER, BodyDef.BodyType.DynamicBody, true)
+                .addFixture(box, 1f, 0.2f, 0f, false, FixtureType.CHARACTER, SurfaceMaterial.CHARACTER_STAND)
+                .addFixture(circle, 1f, 100f, 0f, false, FixtureType.CHARACTER, SurfaceMaterial.CHARACTER_STAND)
+                .addFixture(footSensor, 0f, 0f, 0f, true, FixtureType.FOOT_SENSOR, null);
+    }
+}
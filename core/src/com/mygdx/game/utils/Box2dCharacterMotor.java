@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.mygdx.game.components.CharacterComponent;
+import com.mygdx.game.components.PhysicsComponent;
+
+public class Box2dCharacterMotor implements CharacterMotor {
+
+    private final PhysicsComponent physics;
+    private final CharacterComponent character;
+
+    public Box2dCharacterMotor(PhysicsComponent physics, CharacterComponent character) {
+        this.physics = physics;
+        this.character = character;
+    }
+
+    @Override
+    public Vector2 getVelocity() {
+        return physics.body.getLinearVelocity();
+    }
+
+    @Override
+    public boolean isGrounded() {
+        return character.groundContacts.isGrounded();
+    }
+
+    @Override
+    public void setVelocity(float velocityX, float velocityY) {
+        final Body body = physics.body;
+        final Vector2 velocity = body.getLinearVelocity();
+        final float mass = body.getMass();
+        body.applyLinearImpulse(mass * (velocityX - velocity.x), mass * (velocityY - velocity.y),
+                body.getPosition().x, body.getPosition().y, true);
+    }
+
+    @Override
+    public void accelerate(float accelerationX, float accelerationY) {
+        final Body body = physics.body;
+        body.applyForceToCenter(body.getMass() * accelerationX, body.getMass() * accelerationY, true);
+    }
+
+    @Override
+    public void setMaterial(SurfaceMaterial material) {
+        if (character.bodyData != null) {
+            character.bodyData.material = material;
+        }
+    }
+}
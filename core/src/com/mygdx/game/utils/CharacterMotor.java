@@ -0,0 +1,47 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Moves a character on one of the collision backends, so controllers don't have to know which one it uses.
+ */
+public interface CharacterMotor {
+
+    /**
+     * Current velocity, the returned vector is owned by the motor.
+     */
+    Vector2 getVelocity();
+
+    boolean isGrounded();
+
+    /**
+     * Changes the velocity immediately, like an impulse.
+     */
+    void setVelocity(float velocityX, float velocityY);
+
+    /**
+     * Accelerates the character during the next step, like a force.
+     */
+    void accelerate(float accelerationX, float accelerationY);
+
+    /**
+     * Surface the character touches the ground with, switch it when the character's state changes.
+     */
+    void setMaterial(SurfaceMaterial material);
+}
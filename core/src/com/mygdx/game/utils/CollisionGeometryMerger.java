@@ -0,0 +1,334 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Welds the outlines drawn in a Tiled physics layer into as few chain shapes as possible.
+ * <p>
+ * Looping polylines are oriented counter-clockwise and an edge shared by two touching outlines in opposite
+ * directions is dropped, so neighbouring blocks become a single loop. Open polylines are split into segments,
+ * segments already covered by another outline are dropped and the rest are joined end to end. Finally collinear
+ * vertices are removed. Polygons are not merged, they stay solid fixtures.
+ */
+public class CollisionGeometryMerger {
+
+    private static final float WELD_TOLERANCE = 0.001f;
+    private static final float COLLINEAR_TOLERANCE = 0.0001f;
+
+    private final LongMap<Node> nodes = new LongMap<Node>();
+    private final Array<Node> nodeList = new Array<Node>();
+    private final Array<Link> loopLinks = new Array<Link>();
+    private final Array<Link> chainLinks = new Array<Link>();
+    private final Array<float[]> openSegments = new Array<float[]>();
+
+    private final Array<float[]> loops = new Array<float[]>();
+    private final Array<float[]> chains = new Array<float[]>();
+
+    private int sourceFixtureCount;
+    private int sourceProxyCount;
+
+    public void addPolyline(float[] vertices) {
+        sourceFixtureCount++;
+        sourceProxyCount += vertices.length / 2 - 1;
+
+        final int last = vertices.length - 2;
+        if (vertices.length >= 8 && vertices[0] == vertices[last] && vertices[1] == vertices[last + 1]) {
+            addLoop(vertices, vertices.length - 2);
+        } else {
+            for (int i = 0; i < last; i += 2) {
+                openSegments.add(new float[]{vertices[i], vertices[i + 1], vertices[i + 2], vertices[i + 3]});
+            }
+        }
+    }
+
+    private void addLoop(float[] vertices, int length) {
+        float area = 0;
+        for (int i = 0; i < length; i += 2) {
+            final int next = (i + 2) % length;
+            area += vertices[i] * vertices[next + 1] - vertices[next] * vertices[i + 1];
+        }
+        final boolean counterClockwise = area >= 0;
+
+        final int count = length / 2;
+        for (int i = 0; i < count; ++i) {
+            final int from = counterClockwise ? i : count - 1 - i;
+            final int to = counterClockwise ? (i + 1) % count : (2 * count - 2 - i) % count;
+            addLoopEdge(getNode(vertices[from * 2], vertices[from * 2 + 1]),
+                    getNode(vertices[to * 2], vertices[to * 2 + 1]));
+        }
+    }
+
+    private void addLoopEdge(Node from, Node to) {
+        if (from == to || from.findLoopLink(to) != null) {
+            return;
+        }
+        Link twin = to.findLoopLink(from);
+        if (twin != null) {
+            // interior edge between two touching outlines
+            twin.removed = true;
+            return;
+        }
+        Link link = new Link(from, to);
+        from.loopLinks.add(link);
+        loopLinks.add(link);
+    }
+
+    private Node getNode(float x, float y) {
+        final long key = (((long) Math.round(x / WELD_TOLERANCE)) << 32)
+                | (Math.round(y / WELD_TOLERANCE) & 0xffffffffL);
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(x, y);
+            nodes.put(key, node);
+            nodeList.add(node);
+        }
+        return node;
+    }
+
+    public void merge() {
+        loops.clear();
+        chains.clear();
+
+        buildLoops();
+        buildChains();
+    }
+
+    private void buildLoops() {
+        FloatArray points = new FloatArray();
+        for (int i = 0; i < loopLinks.size; ++i) {
+            Link link = loopLinks.get(i);
+            if (link.removed || link.used) {
+                continue;
+            }
+            points.clear();
+            Node start = link.from;
+            boolean closed = false;
+            while (true) {
+                link.used = true;
+                addPoint(points, link.from);
+                if (link.to == start) {
+                    closed = true;
+                    break;
+                }
+                Link next = link.to.nextLoopLink();
+                if (next == null) {
+                    addPoint(points, link.to);
+                    break;
+                }
+                link = next;
+            }
+            addResult(points, closed);
+        }
+    }
+
+    private void buildChains() {
+        for (int i = 0; i < openSegments.size; ++i) {
+            float[] segment = openSegments.get(i);
+            Node from = getNode(segment[0], segment[1]);
+            Node to = getNode(segment[2], segment[3]);
+            if (from == to || from.isLinkedTo(to) || to.findLoopLink(from) != null || from.findLoopLink(to) != null) {
+                continue;
+            }
+            Link link = new Link(from, to);
+            from.chainLinks.add(link);
+            to.chainLinks.add(link);
+            chainLinks.add(link);
+        }
+
+        FloatArray points = new FloatArray();
+
+        // start at the ends and junctions first so every open run is walked from one of its extremities
+        for (int i = 0; i < nodeList.size; ++i) {
+            Node node = nodeList.get(i);
+            if (node.chainLinks.size == 0 || node.chainLinks.size == 2) {
+                continue;
+            }
+            Link link;
+            while ((link = node.nextChainLink()) != null) {
+                walkChain(node, link, points);
+            }
+        }
+
+        // whatever is left only goes through nodes with two links, those are closed rings
+        for (int i = 0; i < chainLinks.size; ++i) {
+            Link link = chainLinks.get(i);
+            if (!link.used) {
+                walkChain(link.from, link, points);
+            }
+        }
+    }
+
+    private void walkChain(Node start, Link link, FloatArray points) {
+        points.clear();
+        addPoint(points, start);
+
+        Node node = start;
+        while (link != null) {
+            link.used = true;
+            node = link.other(node);
+            if (node == start) {
+                break;
+            }
+            addPoint(points, node);
+            link = (node.chainLinks.size == 2) ? node.nextChainLink() : null;
+        }
+        addResult(points, node == start);
+    }
+
+    private static void addPoint(FloatArray points, Node node) {
+        points.add(node.x);
+        points.add(node.y);
+    }
+
+    private void addResult(FloatArray points, boolean loop) {
+        removeCollinear(points, loop);
+
+        final int count = points.size / 2;
+        if (loop && count >= 3) {
+            loops.add(points.toArray());
+        } else if (count >= 2) {
+            chains.add(points.toArray());
+        }
+    }
+
+    private static void removeCollinear(FloatArray points, boolean loop) {
+        boolean changed = true;
+        while (changed && points.size > (loop ? 6 : 4)) {
+            changed = false;
+            final int count = points.size / 2;
+            for (int i = loop ? 0 : 1; i < (loop ? count : count - 1); ++i) {
+                final int prev = (i + count - 1) % count;
+                final int next = (i + 1) % count;
+
+                final float ax = points.get(i * 2) - points.get(prev * 2);
+                final float ay = points.get(i * 2 + 1) - points.get(prev * 2 + 1);
+                final float bx = points.get(next * 2) - points.get(i * 2);
+                final float by = points.get(next * 2 + 1) - points.get(i * 2 + 1);
+
+                final float cross = ax * by - ay * bx;
+                final float dot = ax * bx + ay * by;
+                final float lengths = (float) Math.sqrt((ax * ax + ay * ay) * (bx * bx + by * by));
+                if (dot > 0 && Math.abs(cross) <= COLLINEAR_TOLERANCE * lengths) {
+                    points.removeRange(i * 2, i * 2 + 1);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    public Array<float[]> getLoops() {
+        return loops;
+    }
+
+    public Array<float[]> getChains() {
+        return chains;
+    }
+
+    public int getSourceFixtureCount() {
+        return sourceFixtureCount;
+    }
+
+    public int getSourceProxyCount() {
+        return sourceProxyCount;
+    }
+
+    public int getFixtureCount() {
+        return loops.size + chains.size;
+    }
+
+    public int getProxyCount() {
+        int proxies = 0;
+        for (int i = 0; i < loops.size; ++i) {
+            proxies += loops.get(i).length / 2;
+        }
+        for (int i = 0; i < chains.size; ++i) {
+            proxies += chains.get(i).length / 2 - 1;
+        }
+        return proxies;
+    }
+
+    private static class Node {
+        final float x;
+        final float y;
+        final Array<Link> loopLinks = new Array<Link>(2);
+        final Array<Link> chainLinks = new Array<Link>(2);
+
+        Node(float x, float y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        Link findLoopLink(Node to) {
+            for (int i = 0; i < loopLinks.size; ++i) {
+                Link link = loopLinks.get(i);
+                if (link.to == to && !link.removed) {
+                    return link;
+                }
+            }
+            return null;
+        }
+
+        Link nextLoopLink() {
+            for (int i = 0; i < loopLinks.size; ++i) {
+                Link link = loopLinks.get(i);
+                if (!link.removed && !link.used) {
+                    return link;
+                }
+            }
+            return null;
+        }
+
+        boolean isLinkedTo(Node node) {
+            for (int i = 0; i < chainLinks.size; ++i) {
+                if (chainLinks.get(i).other(this) == node) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Link nextChainLink() {
+            for (int i = 0; i < chainLinks.size; ++i) {
+                if (!chainLinks.get(i).used) {
+                    return chainLinks.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Link {
+        final Node from;
+        final Node to;
+        boolean removed;
+        boolean used;
+
+        Link(Node from, Node to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        Node other(Node node) {
+            return (node == from) ? to : from;
+        }
+    }
+}
@@ -23,14 +23,15 @@ import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.*;
 import com.mygdx.game.components.*;
 import com.mygdx.game.systems.PlayerSystem;
 import com.mygdx.game.systems.RenderingSystem;
 
 public class EntityBuilder {
 
+    private static final float MAP_CHUNK_SIZE = 4f;
+    private static final int MAP_RENDER_CHUNK_TILES = 16;
+
     private static PooledEngine engine;
 
     private EntityBuilder() {
@@ -47,21 +48,76 @@ public class EntityBuilder {
         return getEntityFrom(transform, cameraHelper);
     }
 
-    public static Entity getMap(World world, TiledMap tilemap, float mapScale, SpriteBatch batch) {
+    public static Entity getMap(TiledMap tilemap, float mapScale, SpriteBatch batch) {
+        final float rendererScale = mapScale / RenderingSystem.PIXEL_PER_UNIT;
+
+        TiledMapComponent tiledMap = new TiledMapComponent();
+        tiledMap.renderer = new OrthogonalTiledMapRenderer(tilemap, rendererScale, batch);
+        tiledMap.cache = new TiledMapCache(tilemap, rendererScale, MAP_RENDER_CHUNK_TILES);
+
+        MapPhysicsComponent mapPhysics = TiledMapUtils.generateMapPhysics(tiledMap, MAP_CHUNK_SIZE);
+
+        return getEntityFrom(tiledMap, mapPhysics);
+    }
+
+    public static Entity getMapView(TiledMap tilemap, float mapScale, SpriteBatch batch) {
         final float rendererScale = mapScale / RenderingSystem.PIXEL_PER_UNIT;
 
         TiledMapComponent tiledMap = new TiledMapComponent();
         tiledMap.renderer = new OrthogonalTiledMapRenderer(tilemap, rendererScale, batch);
+        tiledMap.cache = new TiledMapCache(tilemap, rendererScale, MAP_RENDER_CHUNK_TILES);
+
+        return getEntityFrom(tiledMap);
+    }
+
+    public static Entity getMapPhysics(TiledMap tilemap, float mapScale) {
+        final float rendererScale = mapScale / RenderingSystem.PIXEL_PER_UNIT;
 
-        PhysicsComponent physics = TiledMapUtils.generateMapPhysics(world, tiledMap);
+        MapPhysicsComponent mapPhysics = TiledMapUtils.generateMapPhysics(tilemap, rendererScale, MAP_CHUNK_SIZE);
 
-        return getEntityFrom(tiledMap, physics);
+        return getEntityFrom(mapPhysics);
     }
 
-    public static Entity getPlayer(World world, float x, float y) {
+    public static Entity getPlayer(BodyPool bodyPool, float x, float y) {
+        CharacterComponent character = new CharacterComponent();
+
+        PhysicsComponent physics = new PhysicsComponent();
+        physics.prefab = BodyPrefabs.get(BodyPrefabs.PLAYER);
+        physics.body = bodyPool.obtain(physics.prefab, x, y, 0);
+        character.bodyData = (FixtureData) physics.body.getFixtureList().first().getUserData();
+
+        MotorComponent motor = new MotorComponent();
+        motor.motor = new Box2dCharacterMotor(physics, character);
+
+        Entity player = getPlayerFrom(x, y, character, motor);
+        player.add(physics);
+        BodyPrefab.setEntity(physics.body, player);
+
+        return player;
+    }
+
+    /**
+     * Player moved against the tile grid of a {@link com.mygdx.game.systems.TileCollisionSystem} instead of Box2D.
+     */
+    public static Entity getTilePlayer(float x, float y) {
+        CharacterComponent character = new CharacterComponent();
+
+        TileBodyComponent tileBody = new TileBodyComponent();
+        tileBody.halfWidth = BodyPrefabs.PLAYER_WIDTH / 2;
+        tileBody.halfHeight = BodyPrefabs.PLAYER_HEIGHT / 2;
+        tileBody.offsetY = BodyPrefabs.PLAYER_BOTTOM + tileBody.halfHeight;
+
+        MotorComponent motor = new MotorComponent();
+        motor.motor = new TileCharacterMotor(tileBody);
+
+        Entity player = getPlayerFrom(x, y, character, motor);
+        player.add(tileBody);
+
+        return player;
+    }
+
+    private static Entity getPlayerFrom(float x, float y, CharacterComponent character, MotorComponent motor) {
         final float playerScale = 0.7f;
-        final float playerWidth = 0.45f;
-        final float playerHeight = 0.67f;
         final float frameDuration = 1.0f / 8;
 
         TextureComponent sprite = new TextureComponent();
@@ -78,58 +134,8 @@ public class EntityBuilder {
 
         animator.currentAnimation = PlayerAnimation.IDLE;
 
-        final CharacterComponent character = new CharacterComponent();
-
-        PhysicsComponent physics = new PhysicsComponent();
-        BodyDef bodyDef = Box2dUtils.getBodyDef(BodyDef.BodyType.DynamicBody, transform);
-        physics.body = world.createBody(bodyDef);
-        physics.body.setFixedRotation(true);
-
-        final float halfBoxWidth = playerWidth / 2;
-        final float halfBoxHeight = (playerHeight - halfBoxWidth) / 2;
-
-        final Vector2 fixtureOffset = new Vector2(0f, -0.155f);
-
-        final Vector2 boxPosition = new Vector2(0, halfBoxHeight);
-        final Vector2 circlePosition = new Vector2();
-        final Vector2 sensorPosition = new Vector2(0, -halfBoxWidth);
-
-        boxPosition.add(fixtureOffset);
-        circlePosition.add(fixtureOffset);
-        sensorPosition.add(fixtureOffset);
-
-        Box2dUtils.setBoxShape(halfBoxWidth, halfBoxHeight, boxPosition, 0f);
-        FixtureDef boxFixtureDef = Box2dUtils.getBoxFixtureDef(1f, 0.2f, 0f);
-        physics.body.createFixture(boxFixtureDef);
-
-        Box2dUtils.setCircleShape(halfBoxWidth, circlePosition);
-        FixtureDef circleFixtureDef = Box2dUtils.getCircleFixtureDef(1f, 100f, 0f);
-        physics.body.createFixture(circleFixtureDef);
-
-        Box2dUtils.setBoxShape(playerWidth / 5, playerWidth / 20, sensorPosition, 0f);
-        Fixture footSensor = physics.body.createFixture(Box2dUtils.getBoxFixtureDef(0f, 0f, 0f));
-        footSensor.setSensor(true);
-        footSensor.setUserData(new FixtureData() {
-            @Override
-            public FixtureType getFixtureType() {
-                return FixtureType.FOOT_SENSOR;
-            }
-
-            @Override
-            public void beginContact(Contact contact) {
-                character.footContacts.add(contact);
-                character.footContactsCount++;
-            }
-
-            @Override
-            public void endContact(Contact contact) {
-                character.footContacts.removeValue(contact, true);
-                character.footContactsCount--;
-            }
-        });
-
         PlayerComponent playerComponent = new PlayerComponent();
-        Entity player = getEntityFrom(physics, sprite, transform, animator, character, playerComponent);
+        Entity player = getEntityFrom(sprite, transform, animator, character, motor, playerComponent);
 
         playerComponent.stateMachine.setOwner(player);
         playerComponent.stateMachine.setInitialState(PlayerSystem.PlayerState.IDLE);
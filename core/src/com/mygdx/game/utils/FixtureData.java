@@ -16,15 +16,57 @@
 
 package com.mygdx.game.utils;
 
-import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 
-public interface FixtureData {
+public class FixtureData {
 
-    FixtureType getFixtureType();
+    public final FixtureType type;
 
-    void beginContact(Contact contact);
+    // owner of the fixture, null for level geometry and once the owner has been removed
+    public Entity entity;
 
-    void endContact(Contact contact);
+    // surface looked up by the contact listener, fixtures without one keep their own friction and restitution
+    public SurfaceMaterial material;
 
+    // outline of chain fixtures, so edge normals can be found without going through the native shape
+    public float[] chainVertices;
+    public boolean chainLooped;
 
+    public FixtureData(FixtureType type) {
+        this.type = type;
+    }
+
+    public FixtureData(FixtureType type, float[] chainVertices, boolean chainLooped) {
+        this.type = type;
+        this.chainVertices = chainVertices;
+        this.chainLooped = chainLooped;
+    }
+
+    public FixtureData(FixtureType type, Entity entity) {
+        this.type = type;
+        this.entity = entity;
+    }
+
+    /**
+     * Stores the upward facing normal of the given child edge in out, or straight up if this is not a chain.
+     */
+    public Vector2 getEdgeNormal(int childIndex, Vector2 out) {
+        if (chainVertices == null) {
+            return out.set(0, 1);
+        }
+        final int count = chainVertices.length / 2;
+        final int from = MathUtils.clamp(childIndex, 0, count - 1);
+        final int to = chainLooped ? (from + 1) % count : Math.min(from + 1, count - 1);
+
+        out.set(chainVertices[from * 2 + 1] - chainVertices[to * 2 + 1], chainVertices[to * 2] - chainVertices[from * 2]);
+        if (out.isZero()) {
+            return out.set(0, 1);
+        }
+        if (out.y < 0) {
+            out.scl(-1);
+        }
+        return out.nor();
+    }
 }
@@ -17,5 +17,7 @@
 package com.mygdx.game.utils;
 
 public enum FixtureType {
+    GROUND,
+    CHARACTER,
     FOOT_SENSOR
 }
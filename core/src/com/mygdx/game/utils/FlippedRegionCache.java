@@ -0,0 +1,68 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Flipped copies of texture regions, made the first time each variant is asked for.
+ * <p>
+ * Regions from an atlas are shared by every sprite using the animation, so flipping them in place for one sprite
+ * changes them for all the others. The copies are never changed after they are made; the regions passed in are never
+ * changed at all.
+ */
+public class FlippedRegionCache {
+
+    private static final int FLIP_X = 1;
+    private static final int FLIP_Y = 1 << 1;
+
+    // variants by region, indexed by the flip bits, the unflipped one is the region itself
+    private final ObjectMap<TextureRegion, TextureRegion[]> variants = new ObjectMap<TextureRegion, TextureRegion[]>();
+
+    /**
+     * Returns the region as drawn mirrored horizontally and/or vertically.
+     */
+    public TextureRegion get(TextureRegion region, boolean flipX, boolean flipY) {
+        if (!flipX && !flipY) {
+            return region;
+        }
+        TextureRegion[] regionVariants = variants.get(region);
+        if (regionVariants == null) {
+            regionVariants = new TextureRegion[4];
+            regionVariants[0] = region;
+            variants.put(region, regionVariants);
+        }
+
+        final int index = (flipX ? FLIP_X : 0) | (flipY ? FLIP_Y : 0);
+        TextureRegion variant = regionVariants[index];
+        if (variant == null) {
+            variant = new TextureRegion(region);
+            variant.flip(flipX, flipY);
+            regionVariants[index] = variant;
+        }
+        return variant;
+    }
+
+    public int size() {
+        return variants.size;
+    }
+
+    public void clear() {
+        variants.clear();
+    }
+}
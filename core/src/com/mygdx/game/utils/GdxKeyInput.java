@@ -0,0 +1,40 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Reads the keys straight from {@link Gdx#input}, for game logic updated once per rendered frame.
+ */
+public class GdxKeyInput implements KeyInput {
+
+    public static final GdxKeyInput instance = new GdxKeyInput();
+
+    private GdxKeyInput() {
+    }
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        return Gdx.input.isKeyPressed(key);
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        return Gdx.input.isKeyJustPressed(key);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+
+/**
+ * Fixed-capacity set of the ground contacts of a character, with their averaged normal and a ground body. A contact
+ * is a ground fixture and the child edge touched, chains touch with one contact per edge. Contacts beyond
+ * {@link #CAPACITY} are still counted but do not contribute to the normal.
+ */
+public class GroundContacts {
+
+    public static final int CAPACITY = 8;
+
+    private final FixtureData[] grounds = new FixtureData[CAPACITY];
+    private final int[] childIndices = new int[CAPACITY];
+    private final Body[] bodies = new Body[CAPACITY];
+    private final float[] normalsX = new float[CAPACITY];
+    private final float[] normalsY = new float[CAPACITY];
+    private int size;
+    private int count;
+
+    private final Vector2 normal = new Vector2(0, 1);
+    private Body body;
+
+    public void add(FixtureData ground, int childIndex, Body groundBody, float normalX, float normalY) {
+        count++;
+        if (size == CAPACITY) {
+            return;
+        }
+        grounds[size] = ground;
+        childIndices[size] = childIndex;
+        bodies[size] = groundBody;
+        normalsX[size] = normalX;
+        normalsY[size] = normalY;
+        size++;
+        updateCache();
+    }
+
+    /**
+     * Ends a contact, its slot is only freed if it was stored, contacts that did not fit are just uncounted.
+     */
+    public void remove(FixtureData ground, int childIndex) {
+        if (count > 0) {
+            count--;
+        }
+        for (int i = 0; i < size; ++i) {
+            if (grounds[i] == ground && childIndices[i] == childIndex) {
+                final int last = --size;
+                grounds[i] = grounds[last];
+                childIndices[i] = childIndices[last];
+                bodies[i] = bodies[last];
+                normalsX[i] = normalsX[last];
+                normalsY[i] = normalsY[last];
+                grounds[last] = null;
+                bodies[last] = null;
+                updateCache();
+                return;
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            grounds[i] = null;
+            bodies[i] = null;
+        }
+        size = 0;
+        count = 0;
+        updateCache();
+    }
+
+    private void updateCache() {
+        float x = 0;
+        float y = 0;
+        for (int i = 0; i < size; ++i) {
+            x += normalsX[i];
+            y += normalsY[i];
+        }
+        normal.set(x, y);
+        if (normal.isZero()) {
+            normal.set(0, 1);
+        } else {
+            normal.nor();
+        }
+        body = (size > 0) ? bodies[0] : null;
+    }
+
+    public boolean isGrounded() {
+        return count > 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Vector2 getNormal() {
+        return normal;
+    }
+
+    public Body getBody() {
+        return body;
+    }
+}
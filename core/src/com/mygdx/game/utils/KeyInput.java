@@ -0,0 +1,30 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * Keyboard state as the game logic sees it, so systems can read keys without knowing which thread delivers them.
+ */
+public interface KeyInput {
+
+    boolean isKeyPressed(int key);
+
+    /**
+     * Whether the key went down since the previous update of the game logic.
+     */
+    boolean isKeyJustPressed(int key);
+}
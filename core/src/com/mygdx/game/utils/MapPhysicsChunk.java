@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.Array;
+
+public class MapPhysicsChunk {
+
+    public final int column;
+    public final int row;
+    // cell of the chunk, grown to cover the solid polygons stored in it
+    public final Rectangle bounds = new Rectangle();
+
+    public final Array<float[]> loops = new Array<float[]>();
+    public final Array<float[]> chains = new Array<float[]>();
+    // previous x, y and next x, y of each chain, NaN when the chain really ends there
+    public final Array<float[]> ghostVertices = new Array<float[]>();
+    // solid polygons are kept whole in the chunk under their center
+    public final Array<float[]> polygons = new Array<float[]>();
+
+    // body in a single world, see WorldChunkBodies
+    public Body body;
+    // whether the chunk has collision, active or not
+    public boolean live;
+    public boolean active;
+    public int neededFrame = -1;
+    public float idleTime;
+
+    public MapPhysicsChunk(int column, int row) {
+        this.column = column;
+        this.row = row;
+    }
+
+    public boolean isEmpty() {
+        return loops.size == 0 && chains.size == 0 && polygons.size == 0;
+    }
+}
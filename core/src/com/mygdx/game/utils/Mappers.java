@@ -29,6 +29,9 @@ public class Mappers {
     public static final ComponentMapper<TiledMapComponent> tiledMap = ComponentMapper.getFor(TiledMapComponent.class);
     public static final ComponentMapper<CharacterComponent> character = ComponentMapper.getFor(CharacterComponent.class);
     public static final ComponentMapper<PlayerComponent> player = ComponentMapper.getFor(PlayerComponent.class);
+    public static final ComponentMapper<MapPhysicsComponent> mapPhysics = ComponentMapper.getFor(MapPhysicsComponent.class);
+    public static final ComponentMapper<TileBodyComponent> tileBody = ComponentMapper.getFor(TileBodyComponent.class);
+    public static final ComponentMapper<MotorComponent> motor = ComponentMapper.getFor(MotorComponent.class);
 
     private Mappers() {
     }
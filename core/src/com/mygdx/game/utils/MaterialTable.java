@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * Friction and restitution for every pair of {@link SurfaceMaterial}s. Pairs are mixed the way Box2D mixes fixtures
+ * (geometric mean friction, maximum restitution) unless overridden with {@link #set}.
+ */
+public class MaterialTable {
+
+    private static final SurfaceMaterial[] MATERIALS = SurfaceMaterial.values();
+
+    private final float[][] friction = new float[MATERIALS.length][MATERIALS.length];
+    private final float[][] restitution = new float[MATERIALS.length][MATERIALS.length];
+
+    public MaterialTable() {
+        for (SurfaceMaterial a : MATERIALS) {
+            for (SurfaceMaterial b : MATERIALS) {
+                friction[a.ordinal()][b.ordinal()] = (float) Math.sqrt(a.friction * b.friction);
+                restitution[a.ordinal()][b.ordinal()] = Math.max(a.restitution, b.restitution);
+            }
+        }
+    }
+
+    public void set(SurfaceMaterial a, SurfaceMaterial b, float friction, float restitution) {
+        this.friction[a.ordinal()][b.ordinal()] = friction;
+        this.friction[b.ordinal()][a.ordinal()] = friction;
+        this.restitution[a.ordinal()][b.ordinal()] = restitution;
+        this.restitution[b.ordinal()][a.ordinal()] = restitution;
+    }
+
+    public float getFriction(SurfaceMaterial a, SurfaceMaterial b) {
+        return friction[a.ordinal()][b.ordinal()];
+    }
+
+    public float getRestitution(SurfaceMaterial a, SurfaceMaterial b) {
+        return restitution[a.ordinal()][b.ordinal()];
+    }
+}
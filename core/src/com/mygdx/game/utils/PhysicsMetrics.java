@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * Rolling statistics of {@link com.mygdx.game.systems.PhysicsSystem}, one sample per frame except for
+ * {@link #stepMillis}, which gets one per step.
+ */
+public class PhysicsMetrics {
+
+    public static final int WINDOW_SIZE = 240;
+    private static final float DEFAULT_BUDGET_MILLIS = 4f;
+
+    // time of a single world step
+    public final RollingHistogram stepMillis = new RollingHistogram(WINDOW_SIZE, 0.05f, 400);
+    // time of the whole physics update, steps, dispatch and sync
+    public final RollingHistogram frameMillis = new RollingHistogram(WINDOW_SIZE, 0.05f, 400);
+    public final RollingHistogram subSteps = new RollingHistogram(WINDOW_SIZE, 1f, 16);
+    // accumulated time in steps before the backlog beyond the sub-step budget is dropped
+    public final RollingHistogram backlogSteps = new RollingHistogram(WINDOW_SIZE, 0.25f, 64);
+    public final RollingHistogram bodies = new RollingHistogram(WINDOW_SIZE, 8f, 256);
+    public final RollingHistogram contacts = new RollingHistogram(WINDOW_SIZE, 8f, 256);
+    public final RollingHistogram proxies = new RollingHistogram(WINDOW_SIZE, 8f, 256);
+    // time in contact listener callbacks and dispatch, only measured while listener timing is enabled
+    public final RollingHistogram listenerMillis = new RollingHistogram(WINDOW_SIZE, 0.05f, 400);
+
+    private float budgetMillis = DEFAULT_BUDGET_MILLIS;
+
+    public void setBudgetMillis(float budgetMillis) {
+        if (budgetMillis <= 0)
+            throw new IllegalArgumentException("budgetMillis must be positive: " + budgetMillis);
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Physics time per frame the level is allowed to take.
+     */
+    public float getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Whether the 95th percentile of the physics time per frame exceeds the budget.
+     */
+    public boolean isOverBudget() {
+        return frameMillis.getPercentile(0.95f) > budgetMillis;
+    }
+
+    public void clear() {
+        stepMillis.clear();
+        frameMillis.clear();
+        subSteps.clear();
+        backlogSteps.clear();
+        bodies.clear();
+        contacts.clear();
+        proxies.clear();
+        listenerMillis.clear();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * The physics simulation driven by {@link com.mygdx.game.systems.PhysicsSystem}: a single world or a level split
+ * into several worlds.
+ */
+public interface PhysicsStepper {
+
+    void step(float timeStep, int velocityIterations, int positionIterations);
+
+    /**
+     * Hands the buffered contact events to their handlers, always called on the engine's thread.
+     */
+    void dispatchContacts();
+
+    int getBodyCount();
+
+    int getContactCount();
+
+    int getProxyCount();
+
+    void setListenerTimingEnabled(boolean enabled);
+
+    /**
+     * Nanoseconds spent in contact listeners since the last call, 0 while listener timing is disabled.
+     */
+    long takeListenerNanos();
+}
@@ -0,0 +1,44 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * Quality settings the {@link com.mygdx.game.systems.QualitySystem} steps through, from best to cheapest.
+ */
+public enum QualityTier {
+    HIGH(8, 3, true, true, 4f),
+    MEDIUM(6, 2, false, true, 3f),
+    LOW(4, 2, false, false, 2f),
+    MINIMAL(3, 1, false, false, 1f);
+
+    public final int velocityIterations;
+    public final int positionIterations;
+    public final boolean physicsDebug;
+    // whether entities outside the cameras keep picking their animation frames
+    public final boolean offscreenAnimation;
+    // distance beyond the camera views within which bodies simulate and entities animate
+    public final float cullingMargin;
+
+    QualityTier(int velocityIterations, int positionIterations, boolean physicsDebug, boolean offscreenAnimation,
+                float cullingMargin) {
+        this.velocityIterations = velocityIterations;
+        this.positionIterations = positionIterations;
+        this.physicsDebug = physicsDebug;
+        this.offscreenAnimation = offscreenAnimation;
+        this.cullingMargin = cullingMargin;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * Histogram over the last {@link #getWindowSize()} samples. Recording is constant time: the sample evicted from the
+ * window is taken out of its bucket as the new one is counted. Values beyond the last bucket are counted in it.
+ */
+public class RollingHistogram {
+
+    private final float[] samples;
+    private final int[] buckets;
+    private final float bucketWidth;
+
+    private int next;
+    private int size;
+    private double sum;
+    private float latest;
+
+    public RollingHistogram(int windowSize, float bucketWidth, int bucketCount) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException("windowSize must be at least 1: " + windowSize);
+        if (bucketWidth <= 0)
+            throw new IllegalArgumentException("bucketWidth must be positive: " + bucketWidth);
+        if (bucketCount < 1)
+            throw new IllegalArgumentException("bucketCount must be at least 1: " + bucketCount);
+        samples = new float[windowSize];
+        buckets = new int[bucketCount];
+        this.bucketWidth = bucketWidth;
+    }
+
+    public void record(float value) {
+        if (size == samples.length) {
+            final float evicted = samples[next];
+            buckets[getBucketIndex(evicted)]--;
+            sum -= evicted;
+        } else {
+            size++;
+        }
+        samples[next] = value;
+        buckets[getBucketIndex(value)]++;
+        sum += value;
+        latest = value;
+        next = (next + 1) % samples.length;
+    }
+
+    private int getBucketIndex(float value) {
+        final int index = (int) (value / bucketWidth);
+        return (index < 0) ? 0 : Math.min(index, buckets.length - 1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < buckets.length; ++i) {
+            buckets[i] = 0;
+        }
+        next = 0;
+        size = 0;
+        sum = 0;
+        latest = 0;
+    }
+
+    /**
+     * Upper edge of the bucket containing the given fraction of the samples, e.g. 0.95 for the 95th percentile.
+     */
+    public float getPercentile(float percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        final int rank = Math.max(1, (int) Math.ceil(percentile * size));
+        int count = 0;
+        for (int i = 0; i < buckets.length; ++i) {
+            count += buckets[i];
+            if (count >= rank) {
+                return (i + 1) * bucketWidth;
+            }
+        }
+        return buckets.length * bucketWidth;
+    }
+
+    public float getMean() {
+        return (size == 0) ? 0 : (float) (sum / size);
+    }
+
+    public float getMax() {
+        float max = 0;
+        for (int i = 0; i < size; ++i) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    public float getLatest() {
+        return latest;
+    }
+
+    public int getSampleCount() {
+        return size;
+    }
+
+    public int getWindowSize() {
+        return samples.length;
+    }
+
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    public int getBucket(int index) {
+        return buckets[index];
+    }
+
+    public float getBucketWidth() {
+        return bucketWidth;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Uniform grid of axis-aligned bounds for finding the objects that overlap an area.
+ * <p>
+ * Only the cells that hold something exist. An object is listed in every cell its bounds touch and is moved between
+ * cells only when its bounds cross a cell border, so updating objects that stay put or move a little is cheap.
+ */
+public class SpatialHash<T> {
+
+    public static class Entry<T> {
+        private T object;
+        private float minX, minY, maxX, maxY;
+        private int firstColumn, firstRow, lastColumn, lastRow;
+        private int queryStamp;
+
+        public T getObject() {
+            return object;
+        }
+    }
+
+    private final float cellSize;
+    private final LongMap<Array<Entry<T>>> cells = new LongMap<Array<Entry<T>>>();
+    private final Pool<Array<Entry<T>>> cellPool = new Pool<Array<Entry<T>>>() {
+        @Override
+        protected Array<Entry<T>> newObject() {
+            return new Array<Entry<T>>(false, 8);
+        }
+    };
+    private int queryStamp;
+    private int size;
+
+    public SpatialHash(float cellSize) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        this.cellSize = cellSize;
+    }
+
+    public Entry<T> add(T object, float minX, float minY, float maxX, float maxY) {
+        Entry<T> entry = new Entry<T>();
+        entry.object = object;
+        setBounds(entry, minX, minY, maxX, maxY);
+        addToCells(entry);
+        size++;
+        return entry;
+    }
+
+    public void update(Entry<T> entry, float minX, float minY, float maxX, float maxY) {
+        final int firstColumn = entry.firstColumn;
+        final int firstRow = entry.firstRow;
+        final int lastColumn = entry.lastColumn;
+        final int lastRow = entry.lastRow;
+        setBounds(entry, minX, minY, maxX, maxY);
+
+        if (entry.firstColumn != firstColumn || entry.firstRow != firstRow
+                || entry.lastColumn != lastColumn || entry.lastRow != lastRow) {
+            removeFromCells(entry, firstColumn, firstRow, lastColumn, lastRow);
+            addToCells(entry);
+        }
+    }
+
+    public void remove(Entry<T> entry) {
+        removeFromCells(entry, entry.firstColumn, entry.firstRow, entry.lastColumn, entry.lastRow);
+        entry.object = null;
+        size--;
+    }
+
+    /**
+     * Adds every object whose bounds overlap the area to out, each once.
+     */
+    public void query(float minX, float minY, float maxX, float maxY, Array<T> out) {
+        queryStamp++;
+        final int firstColumn = toCell(minX);
+        final int firstRow = toCell(minY);
+        final int lastColumn = toCell(maxX);
+        final int lastRow = toCell(maxY);
+
+        for (int row = firstRow; row <= lastRow; ++row) {
+            for (int column = firstColumn; column <= lastColumn; ++column) {
+                Array<Entry<T>> cell = cells.get(key(column, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size; ++i) {
+                    Entry<T> entry = cell.get(i);
+                    if (entry.queryStamp == queryStamp) {
+                        continue;
+                    }
+                    entry.queryStamp = queryStamp;
+                    if (entry.minX <= maxX && entry.maxX >= minX && entry.minY <= maxY && entry.maxY >= minY) {
+                        out.add(entry.object);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (Array<Entry<T>> cell : cells.values()) {
+            cell.clear();
+            cellPool.free(cell);
+        }
+        cells.clear();
+        size = 0;
+    }
+
+    private void setBounds(Entry<T> entry, float minX, float minY, float maxX, float maxY) {
+        entry.minX = minX;
+        entry.minY = minY;
+        entry.maxX = maxX;
+        entry.maxY = maxY;
+        entry.firstColumn = toCell(minX);
+        entry.firstRow = toCell(minY);
+        entry.lastColumn = toCell(maxX);
+        entry.lastRow = toCell(maxY);
+    }
+
+    private void addToCells(Entry<T> entry) {
+        for (int row = entry.firstRow; row <= entry.lastRow; ++row) {
+            for (int column = entry.firstColumn; column <= entry.lastColumn; ++column) {
+                final long key = key(column, row);
+                Array<Entry<T>> cell = cells.get(key);
+                if (cell == null) {
+                    cell = cellPool.obtain();
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    private void removeFromCells(Entry<T> entry, int firstColumn, int firstRow, int lastColumn, int lastRow) {
+        for (int row = firstRow; row <= lastRow; ++row) {
+            for (int column = firstColumn; column <= lastColumn; ++column) {
+                final long key = key(column, row);
+                Array<Entry<T>> cell = cells.get(key);
+                cell.removeValue(entry, true);
+                if (cell.size == 0) {
+                    cells.remove(key);
+                    cellPool.free(cell);
+                }
+            }
+        }
+    }
+
+    private int toCell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getCellCount() {
+        return cells.size;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+public enum SurfaceMaterial {
+    GROUND(0.2f, 0f),
+    CHARACTER_STAND(100f, 0f),
+    CHARACTER_WALK(0.2f, 0f),
+    CHARACTER_AIR(0f, 0f);
+
+    public final float friction;
+    public final float restitution;
+
+    SurfaceMaterial(float friction, float restitution) {
+        this.friction = friction;
+        this.restitution = restitution;
+    }
+}
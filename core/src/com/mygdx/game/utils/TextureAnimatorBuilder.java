@@ -3,12 +3,12 @@ package com.mygdx.game.utils;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.utils.ObjectMap;
 import com.mygdx.game.components.TextureAnimatorComponent;
 
 public class TextureAnimatorBuilder {
 
-    private ObjectMap<Enum, Animation<TextureRegion>> animations = new ObjectMap<Enum, Animation<TextureRegion>>();
+    private Animation<TextureRegion>[] animations;
+    private Class<?> animationNames;
 
     private TextureAtlas atlas;
 
@@ -26,7 +26,23 @@ public class TextureAnimatorBuilder {
 
 
     public void addAnimation(Enum animationName,  String regionsName, float frameTime, Animation.PlayMode mode) {
-        animations.put(animationName, new Animation<TextureRegion>(frameTime, atlas.findRegions(regionsName), mode));
+        if (animations == null) {
+            animationNames = animationName.getDeclaringClass();
+            animations = newAnimations(animationName.ordinal() + 1);
+        } else if (animationName.getDeclaringClass() != animationNames) {
+            throw new IllegalArgumentException("Animations are named by " + animationNames.getName()
+                    + ", not " + animationName.getDeclaringClass().getName());
+        } else if (animationName.ordinal() >= animations.length) {
+            Animation<TextureRegion>[] grown = newAnimations(animationName.ordinal() + 1);
+            System.arraycopy(animations, 0, grown, 0, animations.length);
+            animations = grown;
+        }
+        animations[animationName.ordinal()] = new Animation<TextureRegion>(frameTime, atlas.findRegions(regionsName), mode);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Animation<TextureRegion>[] newAnimations(int size) {
+        return (Animation<TextureRegion>[]) new Animation<?>[size];
     }
 
     public TextureAnimatorComponent getAnimator() {
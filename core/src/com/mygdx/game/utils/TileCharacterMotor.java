@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.math.Vector2;
+import com.mygdx.game.components.TileBodyComponent;
+
+public class TileCharacterMotor implements CharacterMotor {
+
+    private final TileBodyComponent tileBody;
+
+    public TileCharacterMotor(TileBodyComponent tileBody) {
+        this.tileBody = tileBody;
+    }
+
+    @Override
+    public Vector2 getVelocity() {
+        return tileBody.velocity;
+    }
+
+    @Override
+    public boolean isGrounded() {
+        return tileBody.grounded;
+    }
+
+    @Override
+    public void setVelocity(float velocityX, float velocityY) {
+        tileBody.velocity.set(velocityX, velocityY);
+    }
+
+    @Override
+    public void accelerate(float accelerationX, float accelerationY) {
+        tileBody.acceleration.add(accelerationX, accelerationY);
+    }
+
+    @Override
+    public void setMaterial(SurfaceMaterial material) {
+        tileBody.material = material;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+/**
+ * Solid cells of a tile layer, for moving axis-aligned boxes against the level in pure Java.
+ * <p>
+ * Every non-empty cell counts as a full solid tile, slopes included. Columns left and right of the grid are solid so
+ * the level has walls, rows above and below it are empty.
+ */
+public class TileCollisionGrid {
+
+    private static final float EPSILON = 0.0001f;
+
+    private final boolean[] solid;
+    private final int columns;
+    private final int rows;
+    private final float tileSize;
+
+    /**
+     * @param solid row major from the bottom row up, like {@link com.badlogic.gdx.maps.tiled.TiledMapTileLayer}
+     */
+    public TileCollisionGrid(boolean[] solid, int columns, int rows, float tileSize) {
+        if (solid.length != columns * rows) {
+            throw new IllegalArgumentException("Expected " + columns * rows + " cells but got " + solid.length);
+        }
+        this.solid = solid;
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+    }
+
+    public boolean isSolid(int column, int row) {
+        if (column < 0 || column >= columns) {
+            return true;
+        }
+        if (row < 0 || row >= rows) {
+            return false;
+        }
+        return solid[row * columns + column];
+    }
+
+    /**
+     * Returns how far the box can move along x, up to dx, before it touches a solid tile.
+     */
+    public float sweepX(float minX, float minY, float maxX, float maxY, float dx) {
+        if (dx == 0) {
+            return 0;
+        }
+        final int firstRow = toCell(minY);
+        final int lastRow = toCell(maxY - EPSILON);
+
+        if (dx > 0) {
+            final int lastColumn = toCell(maxX + dx - EPSILON);
+            for (int column = toCell(maxX - EPSILON) + 1; column <= lastColumn; ++column) {
+                if (isSolidColumn(column, firstRow, lastRow)) {
+                    return Math.max(0, column * tileSize - maxX);
+                }
+            }
+        } else {
+            final int lastColumn = toCell(minX + dx);
+            for (int column = toCell(minX) - 1; column >= lastColumn; --column) {
+                if (isSolidColumn(column, firstRow, lastRow)) {
+                    return Math.min(0, (column + 1) * tileSize - minX);
+                }
+            }
+        }
+        return dx;
+    }
+
+    /**
+     * Returns how far the box can move along y, up to dy, before it touches a solid tile.
+     */
+    public float sweepY(float minX, float minY, float maxX, float maxY, float dy) {
+        if (dy == 0) {
+            return 0;
+        }
+        final int firstColumn = toCell(minX);
+        final int lastColumn = toCell(maxX - EPSILON);
+
+        if (dy > 0) {
+            final int lastRow = toCell(maxY + dy - EPSILON);
+            for (int row = toCell(maxY - EPSILON) + 1; row <= lastRow; ++row) {
+                if (isSolidRow(row, firstColumn, lastColumn)) {
+                    return Math.max(0, row * tileSize - maxY);
+                }
+            }
+        } else {
+            final int lastRow = toCell(minY + dy);
+            for (int row = toCell(minY) - 1; row >= lastRow; --row) {
+                if (isSolidRow(row, firstColumn, lastColumn)) {
+                    return Math.min(0, (row + 1) * tileSize - minY);
+                }
+            }
+        }
+        return dy;
+    }
+
+    private boolean isSolidColumn(int column, int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; ++row) {
+            if (isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSolidRow(int row, int firstColumn, int lastColumn) {
+        for (int column = firstColumn; column <= lastColumn; ++column) {
+            if (isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int toCell(float coordinate) {
+        return (int) Math.floor(coordinate / tileSize);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getTileSize() {
+        return tileSize;
+    }
+}
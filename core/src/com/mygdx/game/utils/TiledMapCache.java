@@ -0,0 +1,421 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Tile layers of a map pre-built into square chunks of cached vertices, so drawing the visible part of a layer is a
+ * handful of {@link SpriteCache#draw(int)} calls instead of walking every cell each frame.
+ * <p>
+ * Chunks are rebuilt one at a time: when {@link #invalidate(TiledMapTileLayer, int, int) marked} after a cell was
+ * changed, or when one of their animated tiles moved to another frame. A chunk that gains more tiles than it had when
+ * first built can't be redefined in place and makes the whole cache rebuild. Tiles are placed exactly like
+ * {@link com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer} does, flips and rotations included, but are
+ * grouped by texture inside a chunk, so tiles overlapping their neighbours through offsets may stack differently.
+ */
+public class TiledMapCache implements Disposable {
+
+    public static final String TAG = TiledMapCache.class.getName();
+
+    private static final int VERTEX_SIZE = 5;
+    private static final int QUAD_SIZE = 4 * VERTEX_SIZE;
+    // without indices the cache takes every tile as two triangles
+    private static final int[] TRIANGLE_VERTICES = {0, 1, 2, 2, 3, 0};
+    private static final int TRIANGLES_SIZE = TRIANGLE_VERTICES.length * VERTEX_SIZE;
+
+    private static class Chunk {
+        final int firstColumn;
+        final int firstRow;
+        int cacheId = -1;
+        int capacity;
+        boolean dirty = true;
+        final Array<AnimatedTiledMapTile> animatedTiles = new Array<AnimatedTiledMapTile>();
+        final IntArray animatedFrames = new IntArray();
+
+        Chunk(int firstColumn, int firstRow) {
+            this.firstColumn = firstColumn;
+            this.firstRow = firstRow;
+        }
+    }
+
+    private static class LayerChunks {
+        final TiledMapTileLayer layer;
+        final int columns;
+        final int rows;
+        final Chunk[] chunks;
+
+        LayerChunks(TiledMapTileLayer layer, int chunkTiles) {
+            this.layer = layer;
+            columns = (layer.getWidth() + chunkTiles - 1) / chunkTiles;
+            rows = (layer.getHeight() + chunkTiles - 1) / chunkTiles;
+            chunks = new Chunk[columns * rows];
+            for (int row = 0; row < rows; ++row) {
+                for (int column = 0; column < columns; ++column) {
+                    chunks[row * columns + column] = new Chunk(column * chunkTiles, row * chunkTiles);
+                }
+            }
+        }
+    }
+
+    private final float unitScale;
+    private final int chunkTiles;
+    private final ObjectMap<MapLayer, LayerChunks> layers = new ObjectMap<MapLayer, LayerChunks>();
+    private final float[] vertices = new float[QUAD_SIZE];
+    private final float[] triangles = new float[TRIANGLES_SIZE];
+    private final Array<Texture> textures = new Array<Texture>();
+
+    private SpriteCache cache;
+    // cache and camera version the projection was last set for
+    private SpriteCache projectedCache;
+    private int cameraVersion;
+    private boolean rebuildAll = true;
+    private int drawnChunks;
+    private int rebuiltChunks;
+
+    public TiledMapCache(TiledMap map, float unitScale, int chunkTiles) {
+        if (chunkTiles < 1)
+            throw new IllegalArgumentException("chunkTiles must be at least 1: " + chunkTiles);
+        this.unitScale = unitScale;
+        this.chunkTiles = chunkTiles;
+
+        MapLayers mapLayers = map.getLayers();
+        for (int i = 0; i < mapLayers.getCount(); ++i) {
+            MapLayer layer = mapLayers.get(i);
+            if (layer instanceof TiledMapTileLayer) {
+                layers.put(layer, new LayerChunks((TiledMapTileLayer) layer, chunkTiles));
+            }
+        }
+    }
+
+    /**
+     * Whether the layer is drawn by this cache, everything else is left to the map renderer.
+     */
+    public boolean isCached(MapLayer layer) {
+        return layers.containsKey(layer);
+    }
+
+    /**
+     * Marks the chunk holding the cell for rebuilding, to be called after changing the cell.
+     */
+    public void invalidate(TiledMapTileLayer layer, int column, int row) {
+        LayerChunks layerChunks = layers.get(layer);
+        if (layerChunks == null) {
+            throw new IllegalArgumentException("Layer is not cached: " + layer.getName());
+        }
+        final int chunkColumn = column / chunkTiles;
+        final int chunkRow = row / chunkTiles;
+        if (column < 0 || row < 0 || chunkColumn >= layerChunks.columns || chunkRow >= layerChunks.rows) {
+            return;
+        }
+        layerChunks.chunks[chunkRow * layerChunks.columns + chunkColumn].dirty = true;
+    }
+
+    /**
+     * Rebuilds the chunks that are out of date. Call once per frame before drawing.
+     */
+    public void update() {
+        AnimatedTiledMapTile.updateAnimationBaseTime();
+        drawnChunks = 0;
+        rebuiltChunks = 0;
+
+        if (rebuildAll) {
+            build();
+            return;
+        }
+
+        for (LayerChunks layerChunks : layers.values()) {
+            for (Chunk chunk : layerChunks.chunks) {
+                if (!chunk.dirty && hasAnimationChanged(chunk)) {
+                    chunk.dirty = true;
+                }
+                if (chunk.dirty && !rebuildChunk(layerChunks.layer, chunk)) {
+                    Gdx.app.log(TAG, "Chunk outgrew its cache, rebuilding all chunks");
+                    build();
+                    return;
+                }
+            }
+        }
+    }
+
+    public void begin(VersionedCamera camera) {
+        if (camera.getVersion() != cameraVersion || cache != projectedCache) {
+            cameraVersion = camera.getVersion();
+            projectedCache = cache;
+            cache.setProjectionMatrix(camera.combined);
+        }
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.begin();
+    }
+
+    /**
+     * Draws the chunks of the layer that overlap the area. Must be called between {@link #begin} and {@link #end}.
+     */
+    public void draw(MapLayer layer, float minX, float minY, float maxX, float maxY) {
+        LayerChunks layerChunks = layers.get(layer);
+        final float chunkWidth = layerChunks.layer.getTileWidth() * unitScale * chunkTiles;
+        final float chunkHeight = layerChunks.layer.getTileHeight() * unitScale * chunkTiles;
+
+        final int firstColumn = Math.max(0, (int) Math.floor(minX / chunkWidth));
+        final int lastColumn = Math.min(layerChunks.columns - 1, (int) Math.floor(maxX / chunkWidth));
+        final int firstRow = Math.max(0, (int) Math.floor(minY / chunkHeight));
+        final int lastRow = Math.min(layerChunks.rows - 1, (int) Math.floor(maxY / chunkHeight));
+
+        for (int row = firstRow; row <= lastRow; ++row) {
+            for (int column = firstColumn; column <= lastColumn; ++column) {
+                Chunk chunk = layerChunks.chunks[row * layerChunks.columns + column];
+                if (chunk.capacity > 0) {
+                    cache.draw(chunk.cacheId);
+                    drawnChunks++;
+                }
+            }
+        }
+    }
+
+    public void end() {
+        cache.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    private void build() {
+        int tiles = 0;
+        for (LayerChunks layerChunks : layers.values()) {
+            tiles += countTiles(layerChunks.layer, 0, 0, layerChunks.layer.getWidth(), layerChunks.layer.getHeight());
+        }
+        if (cache != null) {
+            cache.dispose();
+        }
+        // room for the tiles only, chunks that grow later cause another full build
+        cache = new SpriteCache(Math.max(1, tiles), false);
+
+        for (LayerChunks layerChunks : layers.values()) {
+            for (Chunk chunk : layerChunks.chunks) {
+                cache.beginCache();
+                chunk.capacity = addTiles(layerChunks.layer, chunk);
+                chunk.cacheId = cache.endCache();
+                chunk.dirty = false;
+                rebuiltChunks++;
+            }
+        }
+        rebuildAll = false;
+    }
+
+    private boolean rebuildChunk(TiledMapTileLayer layer, Chunk chunk) {
+        if (countTiles(layer, chunk.firstColumn, chunk.firstRow, chunkTiles, chunkTiles) > chunk.capacity) {
+            rebuildAll = true;
+            return false;
+        }
+        cache.beginCache(chunk.cacheId);
+        addTiles(layer, chunk);
+        cache.endCache();
+        chunk.dirty = false;
+        rebuiltChunks++;
+        return true;
+    }
+
+    private boolean hasAnimationChanged(Chunk chunk) {
+        for (int i = 0; i < chunk.animatedTiles.size; ++i) {
+            if (chunk.animatedTiles.get(i).getCurrentFrameIndex() != chunk.animatedFrames.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int countTiles(TiledMapTileLayer layer, int firstColumn, int firstRow, int columns, int rows) {
+        final int lastColumn = Math.min(layer.getWidth(), firstColumn + columns);
+        final int lastRow = Math.min(layer.getHeight(), firstRow + rows);
+        int tiles = 0;
+        for (int row = firstRow; row < lastRow; ++row) {
+            for (int column = firstColumn; column < lastColumn; ++column) {
+                TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                if (cell != null && cell.getTile() != null) {
+                    tiles++;
+                }
+            }
+        }
+        return tiles;
+    }
+
+    private int addTiles(TiledMapTileLayer layer, Chunk chunk) {
+        final float color = Color.toFloatBits(1f, 1f, 1f, layer.getOpacity());
+        final float tileWidth = layer.getTileWidth() * unitScale;
+        final float tileHeight = layer.getTileHeight() * unitScale;
+        final int lastColumn = Math.min(layer.getWidth(), chunk.firstColumn + chunkTiles);
+        final int lastRow = Math.min(layer.getHeight(), chunk.firstRow + chunkTiles);
+
+        chunk.animatedTiles.clear();
+        chunk.animatedFrames.clear();
+
+        // the cache draws once per run of tiles sharing a texture, so add the tiles texture by texture
+        textures.clear();
+        for (int row = chunk.firstRow; row < lastRow; ++row) {
+            for (int column = chunk.firstColumn; column < lastColumn; ++column) {
+                TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                if (cell != null && cell.getTile() != null) {
+                    final Texture texture = cell.getTile().getTextureRegion().getTexture();
+                    if (!textures.contains(texture, true)) {
+                        textures.add(texture);
+                    }
+                }
+            }
+        }
+
+        int tiles = 0;
+        for (int i = 0; i < textures.size; ++i) {
+            final Texture texture = textures.get(i);
+            for (int row = chunk.firstRow; row < lastRow; ++row) {
+                for (int column = chunk.firstColumn; column < lastColumn; ++column) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                    if (cell == null || cell.getTile() == null
+                            || cell.getTile().getTextureRegion().getTexture() != texture) {
+                        continue;
+                    }
+                    TiledMapTile tile = cell.getTile();
+                    if (tile instanceof AnimatedTiledMapTile) {
+                        AnimatedTiledMapTile animatedTile = (AnimatedTiledMapTile) tile;
+                        chunk.animatedTiles.add(animatedTile);
+                        chunk.animatedFrames.add(animatedTile.getCurrentFrameIndex());
+                    }
+                    addTile(cell, tile, column * tileWidth, row * tileHeight, color);
+                    tiles++;
+                }
+            }
+        }
+        return tiles;
+    }
+
+    private void addTile(TiledMapTileLayer.Cell cell, TiledMapTile tile, float x, float y, float color) {
+        final TextureRegion region = tile.getTextureRegion();
+
+        final float x1 = x + tile.getOffsetX() * unitScale;
+        final float y1 = y + tile.getOffsetY() * unitScale;
+        final float x2 = x1 + region.getRegionWidth() * unitScale;
+        final float y2 = y1 + region.getRegionHeight() * unitScale;
+
+        final float u1 = region.getU();
+        final float v1 = region.getV2();
+        final float u2 = region.getU2();
+        final float v2 = region.getV();
+
+        final float[] vertices = this.vertices;
+        setVertex(0, x1, y1, color, u1, v1);
+        setVertex(1, x1, y2, color, u1, v2);
+        setVertex(2, x2, y2, color, u2, v2);
+        setVertex(3, x2, y1, color, u2, v1);
+
+        if (cell.getFlipHorizontally()) {
+            swap(u(0), u(2));
+            swap(u(1), u(3));
+        }
+        if (cell.getFlipVertically()) {
+            swap(v(0), v(2));
+            swap(v(1), v(3));
+        }
+        switch (cell.getRotation()) {
+            case TiledMapTileLayer.Cell.ROTATE_90:
+                rotate(u(0), u(1), u(2), u(3));
+                rotate(v(0), v(1), v(2), v(3));
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_180:
+                swap(u(0), u(2));
+                swap(u(1), u(3));
+                swap(v(0), v(2));
+                swap(v(1), v(3));
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_270:
+                rotate(u(0), u(3), u(2), u(1));
+                rotate(v(0), v(3), v(2), v(1));
+                break;
+        }
+
+        for (int i = 0; i < TRIANGLE_VERTICES.length; ++i) {
+            System.arraycopy(vertices, TRIANGLE_VERTICES[i] * VERTEX_SIZE, triangles, i * VERTEX_SIZE, VERTEX_SIZE);
+        }
+        cache.add(region.getTexture(), triangles, 0, TRIANGLES_SIZE);
+    }
+
+    private void setVertex(int vertex, float x, float y, float color, float u, float v) {
+        final int offset = vertex * VERTEX_SIZE;
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = color;
+        vertices[offset + 3] = u;
+        vertices[offset + 4] = v;
+    }
+
+    private static int u(int vertex) {
+        return vertex * VERTEX_SIZE + 3;
+    }
+
+    private static int v(int vertex) {
+        return vertex * VERTEX_SIZE + 4;
+    }
+
+    private void swap(int a, int b) {
+        final float temp = vertices[a];
+        vertices[a] = vertices[b];
+        vertices[b] = temp;
+    }
+
+    // each index takes the value of the next one, the last takes the first
+    private void rotate(int a, int b, int c, int d) {
+        final float temp = vertices[a];
+        vertices[a] = vertices[b];
+        vertices[b] = vertices[c];
+        vertices[c] = vertices[d];
+        vertices[d] = temp;
+    }
+
+    /**
+     * Number of chunks drawn since the last {@link #update}.
+     */
+    public int getDrawnChunkCount() {
+        return drawnChunks;
+    }
+
+    /**
+     * Number of chunks rebuilt by the last {@link #update}.
+     */
+    public int getRebuiltChunkCount() {
+        return rebuiltChunks;
+    }
+
+    @Override
+    public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+    }
+}
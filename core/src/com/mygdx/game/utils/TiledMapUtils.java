@@ -17,32 +17,50 @@
 package com.mygdx.game.utils;
 
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.MapProperties;
 import com.badlogic.gdx.maps.objects.PolygonMapObject;
 import com.badlogic.gdx.maps.objects.PolylineMapObject;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Polyline;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.mygdx.game.components.CameraHelperComponent;
-import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.components.MapPhysicsComponent;
 import com.mygdx.game.components.TiledMapComponent;
 
 public class TiledMapUtils {
 
+    public static final String TAG = TiledMapUtils.class.getName();
+
+    // chain vertices closer than this would trip Box2D's weld check
+    private static final float MIN_SPLIT_DISTANCE = 0.01f;
+
     private TiledMapUtils() {
     }
 
     public static void setCameraHelperBounds(Entity cameraHelper, Entity tileMap) {
-        CameraHelperComponent cameraHelperComp = Mappers.cameraHelper.get(cameraHelper);
         TiledMapComponent tileMapComp = Mappers.tiledMap.get(tileMap);
+        setCameraHelperBounds(cameraHelper, tileMapComp.renderer.getMap(), tileMapComp.renderer.getUnitScale());
+    }
 
-        final float rendererScale = tileMapComp.renderer.getUnitScale();
-        final MapProperties mapProperties = tileMapComp.renderer.getMap().getProperties();
+    public static void setCameraHelperBounds(Entity cameraHelper, TiledMap tiledMap, float rendererScale) {
+        CameraHelperComponent cameraHelperComp = Mappers.cameraHelper.get(cameraHelper);
+        final MapProperties mapProperties = tiledMap.getProperties();
 
         int mapWidth = mapProperties.get("width", Integer.class);
         int mapHeight = mapProperties.get("height", Integer.class);
@@ -55,48 +73,310 @@ public class TiledMapUtils {
         cameraHelperComp.topMost = mapHeight * tilePixelHeight * rendererScale;
     }
 
-    public static PhysicsComponent generateMapPhysics(World world, TiledMapComponent tiledMapComp) {
+    public static MapPhysicsComponent generateMapPhysics(TiledMapComponent tiledMapComp, float chunkSize) {
+        return generateMapPhysics(tiledMapComp.renderer.getMap(), tiledMapComp.renderer.getUnitScale(), chunkSize);
+    }
 
-        final float rendererScale = tiledMapComp.renderer.getUnitScale();
-        final TiledMap tiledMap = tiledMapComp.renderer.getMap();
+    /**
+     * Builds a collision grid where every non-empty cell of the named tile layer is solid.
+     */
+    public static TileCollisionGrid generateTileCollisionGrid(TiledMap tiledMap, String layerName, float rendererScale) {
+        MapLayer mapLayer = tiledMap.getLayers().get(layerName);
+        if (!(mapLayer instanceof TiledMapTileLayer)) {
+            throw new GdxRuntimeException("No tile layer named '" + layerName + "'");
+        }
+        TiledMapTileLayer layer = (TiledMapTileLayer) mapLayer;
 
-        PhysicsComponent physics = new PhysicsComponent();
-        BodyDef bodyDef = Box2dUtils.getBodyDef(BodyDef.BodyType.StaticBody, Vector2.Zero, 0);
-        physics.body = world.createBody(bodyDef);
+        final int columns = layer.getWidth();
+        final int rows = layer.getHeight();
+        boolean[] solid = new boolean[columns * rows];
+        for (int row = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column) {
+                TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                solid[row * columns + column] = cell != null && cell.getTile() != null;
+            }
+        }
+        return new TileCollisionGrid(solid, columns, rows, layer.getTileWidth() * rendererScale);
+    }
 
+    public static MapPhysicsComponent generateMapPhysics(TiledMap tiledMap, float rendererScale, float chunkSize) {
         MapLayer physicsLayer = tiledMap.getLayers().get("physics");
 
         Array<PolylineMapObject> polylineObjects = physicsLayer.getObjects().getByType(PolylineMapObject.class);
         Array<PolygonMapObject> polygonObjects = physicsLayer.getObjects().getByType(PolygonMapObject.class);
 
+        CollisionGeometryMerger merger = new CollisionGeometryMerger();
         for (int i = 0; i< polylineObjects.size; ++i) {
-            Polyline polyline = polylineObjects.get(i).getPolyline();
-            polyline.setPosition(polyline.getX() * rendererScale, polyline.getY() * rendererScale);
+            // work on a copy, the map may be shared by several worlds
+            Polyline source = polylineObjects.get(i).getPolyline();
+            Polyline polyline = new Polyline(source.getVertices());
+            polyline.setPosition(source.getX() * rendererScale, source.getY() * rendererScale);
             polyline.setScale(rendererScale, rendererScale);
 
-            float[] vertices = polyline.getTransformedVertices();
-            boolean looping = (vertices[0] == vertices[vertices.length - 2])
-                    && (vertices[1] == vertices[vertices.length - 1]);
+            merger.addPolyline(polyline.getTransformedVertices());
+        }
+        merger.merge();
+
+        Gdx.app.log(TAG, "Map physics merged from " + merger.getSourceFixtureCount() + " fixtures / "
+                + merger.getSourceProxyCount() + " proxies to " + merger.getFixtureCount() + " fixtures / "
+                + merger.getProxyCount() + " proxies");
+
+        Array<float[]> polygons = new Array<float[]>();
+        for (int i = 0; i< polygonObjects.size; ++i) {
+            Polygon source = polygonObjects.get(i).getPolygon();
+            Polygon polygon = new Polygon(source.getVertices());
+            polygon.setPosition(source.getX() * rendererScale, source.getY() * rendererScale);
+            polygon.setScale(rendererScale, rendererScale);
+
+            polygons.add(polygon.getTransformedVertices());
+        }
+
+        final MapProperties mapProperties = tiledMap.getProperties();
+        final float mapWidth = mapProperties.get("width", Integer.class) * mapProperties.get("tilewidth", Integer.class) * rendererScale;
+        final float mapHeight = mapProperties.get("height", Integer.class) * mapProperties.get("tileheight", Integer.class) * rendererScale;
+
+        MapPhysicsComponent mapPhysics = new MapPhysicsComponent();
+        mapPhysics.chunkSize = chunkSize;
+        mapPhysics.columns = Math.max(1, MathUtils.ceil(mapWidth / chunkSize));
+        mapPhysics.rows = Math.max(1, MathUtils.ceil(mapHeight / chunkSize));
+        mapPhysics.chunks = new MapPhysicsChunk[mapPhysics.columns * mapPhysics.rows];
 
-            if (looping) {
-                float[] fixedVertices = new float[vertices.length - 2];
-                System.arraycopy(vertices, 0, fixedVertices, 0, fixedVertices.length);
-                vertices = fixedVertices;
+        for (int row = 0; row < mapPhysics.rows; ++row) {
+            for (int column = 0; column < mapPhysics.columns; ++column) {
+                MapPhysicsChunk chunk = new MapPhysicsChunk(column, row);
+                chunk.bounds.set(mapPhysics.originX + column * chunkSize, mapPhysics.originY + row * chunkSize,
+                        chunkSize, chunkSize);
+                mapPhysics.chunks[row * mapPhysics.columns + column] = chunk;
             }
+        }
 
-            Box2dUtils.setChainShape(vertices, looping);
-            physics.body.createFixture(Box2dUtils.getChainFixtureDef(0, 0.2f, 0f)).setUserData("map physics");
+        for (int i = 0; i < merger.getLoops().size; ++i) {
+            splitIntoChunks(mapPhysics, merger.getLoops().get(i), true);
         }
 
-        for (int i = 0; i< polygonObjects.size; ++i) {
-            Polygon polygon = polygonObjects.get(i).getPolygon();
-            polygon.setPosition(polygon.getX() * rendererScale, polygon.getY() * rendererScale);
-            polygon.setScale(rendererScale, rendererScale);
+        for (int i = 0; i < merger.getChains().size; ++i) {
+            splitIntoChunks(mapPhysics, merger.getChains().get(i), false);
+        }
+
+        for (int i = 0; i < polygons.size; ++i) {
+            addPolygon(mapPhysics, polygons.get(i));
+        }
+
+        Gdx.app.log(TAG, "Map physics split into " + mapPhysics.columns + " x " + mapPhysics.rows
+                + " chunks of " + chunkSize + " units");
+
+        return mapPhysics;
+    }
+
+    private static void splitIntoChunks(MapPhysicsComponent mapPhysics, float[] outline, boolean loop) {
+        final float[] points = splitAtChunkBorders(mapPhysics, outline, loop);
+        final int count = points.length / 2;
+        final int segments = loop ? count : count - 1;
+
+        // every segment lies within one chunk now, the one under its midpoint
+        int[] segmentChunks = new int[segments];
+        for (int k = 0; k < segments; ++k) {
+            final int next = (k + 1) % count;
+            segmentChunks[k] = getChunkIndex(mapPhysics,
+                    (points[k * 2] + points[next * 2]) * 0.5f,
+                    (points[k * 2 + 1] + points[next * 2 + 1]) * 0.5f);
+        }
+
+        int start = 0;
+        if (loop) {
+            while (start < segments && segmentChunks[start] == segmentChunks[(start + segments - 1) % segments]) {
+                start++;
+            }
+            if (start == segments) {
+                mapPhysics.chunks[segmentChunks[0]].loops.add(points);
+                return;
+            }
+        }
+
+        // consecutive segments in the same chunk form one chain, ghost vertices keep contacts smooth across borders
+        int k = 0;
+        while (k < segments) {
+            final int first = (start + k) % segments;
+            final int chunkIndex = segmentChunks[first];
+            int length = 1;
+            while (k + length < segments && segmentChunks[(start + k + length) % segments] == chunkIndex) {
+                length++;
+            }
+
+            float[] run = new float[(length + 1) * 2];
+            for (int j = 0; j <= length; ++j) {
+                final int vertex = (first + j) % count;
+                run[j * 2] = points[vertex * 2];
+                run[j * 2 + 1] = points[vertex * 2 + 1];
+            }
+
+            float[] ghosts = {Float.NaN, Float.NaN, Float.NaN, Float.NaN};
+            if (loop || first > 0) {
+                final int prev = (first + count - 1) % count;
+                ghosts[0] = points[prev * 2];
+                ghosts[1] = points[prev * 2 + 1];
+            }
+            if (loop || first + length + 1 < count) {
+                final int next = (first + length + 1) % count;
+                ghosts[2] = points[next * 2];
+                ghosts[3] = points[next * 2 + 1];
+            }
+
+            MapPhysicsChunk chunk = mapPhysics.chunks[chunkIndex];
+            chunk.chains.add(run);
+            chunk.ghostVertices.add(ghosts);
+
+            k += length;
+        }
+    }
+
+    /**
+     * Keeps a polygon whole, splitting it would give it inner edges, and grows the bounds of its chunk to cover it.
+     */
+    private static void addPolygon(MapPhysicsComponent mapPhysics, float[] polygon) {
+        float minX = polygon[0];
+        float minY = polygon[1];
+        float maxX = minX;
+        float maxY = minY;
+        for (int i = 2; i < polygon.length; i += 2) {
+            minX = Math.min(minX, polygon[i]);
+            minY = Math.min(minY, polygon[i + 1]);
+            maxX = Math.max(maxX, polygon[i]);
+            maxY = Math.max(maxY, polygon[i + 1]);
+        }
+
+        MapPhysicsChunk chunk = mapPhysics.chunks[getChunkIndex(mapPhysics, (minX + maxX) * 0.5f, (minY + maxY) * 0.5f)];
+        chunk.polygons.add(polygon);
+
+        final Rectangle cell = chunk.bounds;
+        final float cellMinX = mapPhysics.originX + chunk.column * mapPhysics.chunkSize;
+        final float cellMinY = mapPhysics.originY + chunk.row * mapPhysics.chunkSize;
+        cell.merge(minX, minY);
+        cell.merge(maxX, maxY);
+        mapPhysics.overhang = Math.max(mapPhysics.overhang, Math.max(
+                Math.max(cellMinX - cell.x, cell.x + cell.width - cellMinX - mapPhysics.chunkSize),
+                Math.max(cellMinY - cell.y, cell.y + cell.height - cellMinY - mapPhysics.chunkSize)));
+    }
+
+    /**
+     * Adds a vertex wherever a segment crosses a chunk border, except too close to an existing vertex for Box2D.
+     */
+    private static float[] splitAtChunkBorders(MapPhysicsComponent mapPhysics, float[] points, boolean loop) {
+        final int count = points.length / 2;
+        final int segments = loop ? count : count - 1;
+        final float size = mapPhysics.chunkSize;
+
+        FloatArray result = new FloatArray(points.length);
+        FloatArray crossings = new FloatArray();
+        for (int k = 0; k < segments; ++k) {
+            final int next = (k + 1) % count;
+            final float x1 = points[k * 2];
+            final float y1 = points[k * 2 + 1];
+            final float dx = points[next * 2] - x1;
+            final float dy = points[next * 2 + 1] - y1;
+            result.add(x1);
+            result.add(y1);
+
+            // fractions of the segment at which it crosses a column or row border
+            crossings.clear();
+            addCrossings(crossings, x1 - mapPhysics.originX, dx, size);
+            addCrossings(crossings, y1 - mapPhysics.originY, dy, size);
+            crossings.sort();
+
+            final float minFraction = MIN_SPLIT_DISTANCE / (float) Math.sqrt(dx * dx + dy * dy);
+            float last = 0;
+            for (int i = 0; i < crossings.size; ++i) {
+                final float t = crossings.get(i);
+                if (t - last >= minFraction && 1 - t >= minFraction) {
+                    result.add(x1 + dx * t);
+                    result.add(y1 + dy * t);
+                    last = t;
+                }
+            }
+        }
+        if (!loop) {
+            result.add(points[(count - 1) * 2]);
+            result.add(points[(count - 1) * 2 + 1]);
+        }
+        return result.toArray();
+    }
+
+    private static void addCrossings(FloatArray crossings, float start, float delta, float size) {
+        if (delta == 0) {
+            return;
+        }
+        final float end = start + delta;
+        final int first = MathUtils.floor(Math.min(start, end) / size) + 1;
+        final int last = MathUtils.ceil(Math.max(start, end) / size) - 1;
+        for (int border = first; border <= last; ++border) {
+            crossings.add((border * size - start) / delta);
+        }
+    }
+
+    private static int getChunkIndex(MapPhysicsComponent mapPhysics, float x, float y) {
+        final int column = MathUtils.clamp(MathUtils.floor((x - mapPhysics.originX) / mapPhysics.chunkSize),
+                0, mapPhysics.columns - 1);
+        final int row = MathUtils.clamp(MathUtils.floor((y - mapPhysics.originY) / mapPhysics.chunkSize),
+                0, mapPhysics.rows - 1);
+        return row * mapPhysics.columns + column;
+    }
+
+    /**
+     * Builds the static body of a chunk. Runs while worlds tick, possibly several on their own threads at once, so
+     * it creates its own shapes and defs instead of sharing static ones.
+     */
+    public static Body createChunkBody(World world, MapPhysicsChunk chunk) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+        Body body = world.createBody(bodyDef);
+
+        for (int i = 0; i < chunk.loops.size; ++i) {
+            final float[] loop = chunk.loops.get(i);
+            final FixtureData loopData = new FixtureData(FixtureType.GROUND, loop, true);
+            loopData.material = SurfaceMaterial.GROUND;
 
-            Box2dUtils.setPolygonShape(polygon.getTransformedVertices());
-            physics.body.createFixture(Box2dUtils.getPolygonFixtureDef(0, 0.2f, 0f)).setUserData("map physics");
+            ChainShape shape = new ChainShape();
+            shape.createLoop(loop);
+            createGroundFixture(body, shape).setUserData(loopData);
         }
 
-        return physics;
+        for (int i = 0; i < chunk.chains.size; ++i) {
+            final float[] ghosts = chunk.ghostVertices.get(i);
+            final float[] chain = chunk.chains.get(i);
+            final FixtureData chainData = new FixtureData(FixtureType.GROUND, chain, false);
+            chainData.material = SurfaceMaterial.GROUND;
+
+            ChainShape shape = new ChainShape();
+            shape.createChain(chain);
+            if (!Float.isNaN(ghosts[0]))
+                shape.setPrevVertex(ghosts[0], ghosts[1]);
+            if (!Float.isNaN(ghosts[2]))
+                shape.setNextVertex(ghosts[2], ghosts[3]);
+            createGroundFixture(body, shape).setUserData(chainData);
+        }
+
+        for (int i = 0; i < chunk.polygons.size; ++i) {
+            final FixtureData polygonData = new FixtureData(FixtureType.GROUND);
+            polygonData.material = SurfaceMaterial.GROUND;
+
+            PolygonShape shape = new PolygonShape();
+            shape.set(chunk.polygons.get(i));
+            createGroundFixture(body, shape).setUserData(polygonData);
+        }
+
+        return body;
+    }
+
+    // the fixture copies the shape, which is disposed right away
+    private static Fixture createGroundFixture(Body body, Shape shape) {
+        FixtureDef fixtureDef = new FixtureDef();
+        fixtureDef.shape = shape;
+        fixtureDef.density = 0;
+        fixtureDef.friction = 0.2f;
+        fixtureDef.restitution = 0f;
+
+        final Fixture fixture = body.createFixture(fixtureDef);
+        shape.dispose();
+        return fixture;
     }
 }
@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Orthographic camera that only recomputes its matrices when it was actually moved, zoomed or resized, and counts
+ * those changes. Anything derived from the camera can keep the {@link #getVersion() version} it was computed for and
+ * skip the work while it is unchanged.
+ */
+public class VersionedCamera extends OrthographicCamera {
+
+    private final Vector3 lastPosition = new Vector3();
+    private final Vector3 lastDirection = new Vector3();
+    private final Vector3 lastUp = new Vector3();
+    private float lastZoom;
+    private float lastViewportWidth;
+    private float lastViewportHeight;
+    private float lastNear;
+    private float lastFar;
+
+    private boolean updated = false;
+    private boolean frustumUpdated = false;
+    private int version = 0;
+
+    @Override
+    public void update(boolean updateFrustum) {
+        if (updated && !hasChanged() && (frustumUpdated || !updateFrustum)) {
+            return;
+        }
+        super.update(updateFrustum);
+
+        lastPosition.set(position);
+        lastDirection.set(direction);
+        lastUp.set(up);
+        lastZoom = zoom;
+        lastViewportWidth = viewportWidth;
+        lastViewportHeight = viewportHeight;
+        lastNear = near;
+        lastFar = far;
+
+        updated = true;
+        frustumUpdated = updateFrustum;
+        version++;
+    }
+
+    private boolean hasChanged() {
+        return !position.equals(lastPosition) || !direction.equals(lastDirection) || !up.equals(lastUp)
+                || zoom != lastZoom || viewportWidth != lastViewportWidth || viewportHeight != lastViewportHeight
+                || near != lastNear || far != lastFar;
+    }
+
+    /**
+     * Changes every time the matrices are recomputed.
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.physics.box2d.World;
+
+public class WorldChunkBodies implements ChunkBodies {
+
+    private final World world;
+
+    public WorldChunkBodies(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public void create(MapPhysicsChunk chunk) {
+        chunk.body = TiledMapUtils.createChunkBody(world, chunk);
+    }
+
+    @Override
+    public void setActive(MapPhysicsChunk chunk, boolean active) {
+        chunk.body.setActive(active);
+    }
+
+    @Override
+    public void destroy(MapPhysicsChunk chunk) {
+        world.destroyBody(chunk.body);
+        chunk.body = null;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.utils.Array;
+import com.mygdx.game.components.*;
+import com.mygdx.game.systems.PlayerSystem;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Captures the simulation state of every non-static physics entity into a reusable flat buffer and restores it.
+ * <p>
+ * Stored per entity: body transform, velocities and awake flag, {@link TransformComponent} including the
+ * interpolation state, {@link CharacterComponent} direction, {@link PlayerComponent} state and
+ * {@link TextureAnimatorComponent} animation and time. Objects are kept by index in a side array, so capturing does
+ * not allocate once the buffers have grown.
+ * <p>
+ * Contacts are not part of the snapshot. The ground contacts of a character mirror Box2D's contact cache, which
+ * a restore leaves alone as well: the next step compares it with the restored positions and the contact listener
+ * reports the difference, so both catch up together. Until then a restored character keeps the ground contacts it
+ * had before the restore. Bodies moved by a restore are woken, a body captured asleep may therefore differ in when
+ * it falls asleep again. Entities removed since the capture, or whose body changed, are skipped on restore.
+ */
+public class WorldSnapshot {
+
+    private static final Family FAMILY = Family.all(PhysicsComponent.class, TransformComponent.class).get();
+    private static final PlayerSystem.PlayerState[] PLAYER_STATES = PlayerSystem.PlayerState.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static final int FLAG_AWAKE = 1;
+    private static final int FLAG_INTERPOLATE = 1 << 1;
+    private static final int FLAG_CHARACTER = 1 << 2;
+    private static final int FLAG_PLAYER = 1 << 3;
+    private static final int FLAG_ANIMATOR = 1 << 4;
+    private static final int FLAG_FREEZE = 1 << 5;
+
+    // largest record: header, body and transform, character, player and animator
+    private static final int MAX_RECORD_SIZE = 4 + 1 + 6 * 4 + 6 * 4 + 1 + 1 + 8;
+
+    private ByteBuffer buffer;
+    private final Array<Object> references = new Array<Object>();
+    private int entityCount;
+
+    public WorldSnapshot() {
+        this(64);
+    }
+
+    /**
+     * @param entityCapacity number of entities the buffer is sized for before it has to grow
+     */
+    public WorldSnapshot(int entityCapacity) {
+        buffer = ByteBuffer.allocate(Math.max(1, entityCapacity) * MAX_RECORD_SIZE);
+    }
+
+    public void capture(Engine engine) {
+        capture(engine.getEntitiesFor(FAMILY));
+    }
+
+    public void capture(ImmutableArray<Entity> entities) {
+        buffer.clear();
+        references.clear();
+        entityCount = 0;
+
+        for (int i = 0; i < entities.size(); ++i) {
+            final Entity entity = entities.get(i);
+            final Body body = Mappers.physics.get(entity).body;
+            if (body == null || body.getType() == BodyDef.BodyType.StaticBody) {
+                continue;
+            }
+            if (buffer.remaining() < MAX_RECORD_SIZE) {
+                grow();
+            }
+            writeEntity(entity, body);
+            entityCount++;
+        }
+        buffer.flip();
+    }
+
+    private void writeEntity(Entity entity, Body body) {
+        final TransformComponent transform = Mappers.transform.get(entity);
+        final CharacterComponent character = Mappers.character.get(entity);
+        final PlayerComponent player = Mappers.player.get(entity);
+        final TextureAnimatorComponent animator = Mappers.animator.get(entity);
+
+        int flags = 0;
+        if (body.isAwake()) flags |= FLAG_AWAKE;
+        if (transform.interpolate) flags |= FLAG_INTERPOLATE;
+        if (character != null) flags |= FLAG_CHARACTER;
+        if (player != null) flags |= FLAG_PLAYER;
+        if (animator != null) flags |= FLAG_ANIMATOR;
+        if (animator != null && animator.freeze) flags |= FLAG_FREEZE;
+
+        buffer.putInt(reference(entity));
+        reference(body);
+        buffer.put((byte) flags);
+
+        final Vector2 position = body.getPosition();
+        buffer.putFloat(position.x).putFloat(position.y).putFloat(body.getAngle());
+        final Vector2 velocity = body.getLinearVelocity();
+        buffer.putFloat(velocity.x).putFloat(velocity.y).putFloat(body.getAngularVelocity());
+
+        buffer.putFloat(transform.position.x).putFloat(transform.position.y).putFloat(transform.angle);
+        buffer.putFloat(transform.previousPosition.x).putFloat(transform.previousPosition.y)
+                .putFloat(transform.previousAngle);
+
+        if (character != null) {
+            buffer.put((byte) character.viewDirection.ordinal());
+        }
+        if (player != null) {
+            final PlayerSystem.PlayerState state = player.stateMachine.getCurrentState();
+            buffer.put((byte) (state == null ? -1 : state.ordinal()));
+        }
+        if (animator != null) {
+            buffer.putInt(animator.currentAnimation == null ? -1 : reference(animator.currentAnimation));
+            buffer.putFloat(animator.animationTime);
+        }
+    }
+
+    public void restore() {
+        buffer.rewind();
+        for (int n = 0; n < entityCount; ++n) {
+            readEntity();
+        }
+    }
+
+    private void readEntity() {
+        final int entityIndex = buffer.getInt();
+        final Entity entity = (Entity) references.get(entityIndex);
+        final Body body = (Body) references.get(entityIndex + 1);
+        final int flags = buffer.get();
+
+        final PhysicsComponent physics = Mappers.physics.get(entity);
+        // the entity was removed or reused since the capture, read past its record
+        final boolean valid = physics != null && physics.body == body;
+
+        final float x = buffer.getFloat();
+        final float y = buffer.getFloat();
+        final float angle = buffer.getFloat();
+        final float velocityX = buffer.getFloat();
+        final float velocityY = buffer.getFloat();
+        final float angularVelocity = buffer.getFloat();
+        if (valid && physics.dormant) {
+            // deactivated off screen, the state is applied when the body wakes up
+            physics.dormantPosition.set(x, y);
+            physics.dormantAngle = angle;
+            physics.dormantLinearVelocity.set(velocityX, velocityY);
+            physics.dormantAngularVelocity = angularVelocity;
+        } else if (valid) {
+            final Vector2 position = body.getPosition();
+            // Box2D does not update the contacts of a sleeping body, one that was moved has to be awake to report
+            // the contacts of its restored position
+            final boolean moved = position.x != x || position.y != y || body.getAngle() != angle;
+            body.setTransform(x, y, angle);
+            body.setLinearVelocity(velocityX, velocityY);
+            body.setAngularVelocity(angularVelocity);
+            body.setAwake(moved || (flags & FLAG_AWAKE) != 0);
+        }
+
+        final TransformComponent transform = valid ? Mappers.transform.get(entity) : null;
+        final float positionX = buffer.getFloat();
+        final float positionY = buffer.getFloat();
+        final float transformAngle = buffer.getFloat();
+        final float previousX = buffer.getFloat();
+        final float previousY = buffer.getFloat();
+        final float previousAngle = buffer.getFloat();
+        if (transform != null) {
+            transform.position.set(positionX, positionY);
+            transform.angle = transformAngle;
+            transform.previousPosition.set(previousX, previousY);
+            transform.previousAngle = previousAngle;
+            transform.interpolate = (flags & FLAG_INTERPOLATE) != 0;
+        }
+
+        if ((flags & FLAG_CHARACTER) != 0) {
+            final CharacterComponent character = valid ? Mappers.character.get(entity) : null;
+            final int direction = buffer.get();
+            if (character != null) {
+                character.viewDirection = DIRECTIONS[direction];
+            }
+        }
+
+        if ((flags & FLAG_PLAYER) != 0) {
+            final int state = buffer.get();
+            final PlayerComponent player = valid ? Mappers.player.get(entity) : null;
+            if (player != null && state >= 0) {
+                // set without enter/exit, which would reset the animation
+                player.stateMachine.setInitialState(PLAYER_STATES[state]);
+            }
+        }
+
+        if ((flags & FLAG_ANIMATOR) != 0) {
+            final int animation = buffer.getInt();
+            final float time = buffer.getFloat();
+            final TextureAnimatorComponent animator = valid ? Mappers.animator.get(entity) : null;
+            if (animator != null) {
+                animator.currentAnimation = (animation < 0) ? null : (Enum) references.get(animation);
+                animator.animationTime = time;
+                animator.freeze = (flags & FLAG_FREEZE) != 0;
+            }
+        }
+    }
+
+    private int reference(Object object) {
+        references.add(object);
+        return references.size - 1;
+    }
+
+    private void grow() {
+        ByteBuffer newBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Size of the captured state in bytes.
+     */
+    public int getSize() {
+        return buffer.limit();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+}
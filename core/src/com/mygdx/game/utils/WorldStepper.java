@@ -0,0 +1,70 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.utils;
+
+import com.badlogic.gdx.physics.box2d.World;
+import com.mygdx.game.listeners.WorldContactListener;
+
+public class WorldStepper implements PhysicsStepper {
+
+    private final World world;
+    private final WorldContactListener contactListener;
+
+    public WorldStepper(World world, WorldContactListener contactListener) {
+        this.world = world;
+        this.contactListener = contactListener;
+    }
+
+    @Override
+    public void step(float timeStep, int velocityIterations, int positionIterations) {
+        world.step(timeStep, velocityIterations, positionIterations);
+    }
+
+    @Override
+    public void dispatchContacts() {
+        contactListener.dispatch();
+    }
+
+    @Override
+    public int getBodyCount() {
+        return world.getBodyCount();
+    }
+
+    @Override
+    public int getContactCount() {
+        return world.getContactCount();
+    }
+
+    @Override
+    public int getProxyCount() {
+        return world.getProxyCount();
+    }
+
+    @Override
+    public void setListenerTimingEnabled(boolean enabled) {
+        contactListener.setTimingEnabled(enabled);
+    }
+
+    @Override
+    public long takeListenerNanos() {
+        return contactListener.takeTimedNanos();
+    }
+
+    public World getWorld() {
+        return world;
+    }
+}
@@ -1,8 +1,12 @@
 package com.mygdx.game.desktop;
 
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.mygdx.game.MyGdxGame;
+import com.mygdx.game.simulation.ThreadedGameScreen;
+
+import java.util.Arrays;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -11,6 +15,16 @@ public class DesktopLauncher {
 		config.height = 576;
 //		config.width = 840;
 //		config.height = 600;
-		new LwjglApplication(new MyGdxGame(), config);
+		// --threaded steps the simulation on its own thread, without the physics debug overlays
+		if (Arrays.asList(arg).contains("--threaded")) {
+			new LwjglApplication(new MyGdxGame() {
+				@Override
+				protected Screen createGameScreen() {
+					return new ThreadedGameScreen(this);
+				}
+			}, config);
+		} else {
+			new LwjglApplication(new MyGdxGame(), config);
+		}
 	}
 }
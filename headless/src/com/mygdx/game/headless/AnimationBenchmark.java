@@ -0,0 +1,211 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.TextureAnimatorComponent;
+import com.mygdx.game.components.TextureComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.systems.TextureAnimatorSystem;
+import com.mygdx.game.utils.Assets;
+import com.mygdx.game.utils.Mappers;
+import com.mygdx.game.utils.PlayerAnimation;
+import com.mygdx.game.utils.TextureAnimatorBuilder;
+
+/**
+ * Compares {@link TextureAnimatorSystem} with looking every frame up by name, on the player animations. Both run the
+ * same entities from the same random start times and every tick their frames are checked to match.
+ * <p>
+ * Usage: AnimationBenchmark [entities] [ticks]
+ */
+public class AnimationBenchmark extends ApplicationAdapter {
+
+    public static final String TAG = AnimationBenchmark.class.getName();
+
+    private static final float TICK_TIME = 1 / 60f;
+    private static final int WARMUP_TICKS = 120;
+    private static final float FRAME_DURATION = 1.0f / 8;
+    private static final float ANIMATION_SWITCH_CHANCE = 0.002f;
+
+    private final int entities;
+    private final int ticks;
+
+    public AnimationBenchmark(int entities, int ticks) {
+        this.entities = entities;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Looks the animation up in a map and its key frame by time on every update.
+     */
+    private static class KeyFrameLookupSystem extends IteratingSystem {
+
+        private final ObjectMap<Enum<?>, Animation<TextureRegion>> animations;
+
+        KeyFrameLookupSystem(ObjectMap<Enum<?>, Animation<TextureRegion>> animations) {
+            super(Family.all(TextureAnimatorComponent.class, TransformComponent.class, TextureComponent.class).get());
+            this.animations = animations;
+        }
+
+        @Override
+        protected void processEntity(Entity entity, float deltaTime) {
+            TextureComponent sprite = Mappers.sprite.get(entity);
+            TextureAnimatorComponent animator = Mappers.animator.get(entity);
+
+            if (!animator.freeze) animator.animationTime += deltaTime;
+
+            sprite.region = animations.get(animator.currentAnimation).getKeyFrame(animator.animationTime);
+        }
+    }
+
+    /**
+     * Switches animations now and then, like characters changing state.
+     */
+    private static class AnimationSwitcher {
+
+        private final RandomXS128 random = new RandomXS128(1);
+        private final PlayerAnimation[] names = PlayerAnimation.values();
+
+        void update(Array<TextureAnimatorComponent> animators) {
+            for (int i = 0; i < animators.size; ++i) {
+                if (random.nextFloat() < ANIMATION_SWITCH_CHANCE) {
+                    final TextureAnimatorComponent animator = animators.get(i);
+                    animator.currentAnimation = names[random.nextInt(names.length)];
+                    animator.animationTime = 0;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void create() {
+        HeadlessGL.install();
+        Assets.instance.init();
+
+        final PooledEngine lookupEngine = new PooledEngine();
+        final PooledEngine cachedEngine = new PooledEngine();
+        final Array<TextureComponent> lookupSprites = new Array<TextureComponent>(entities);
+        final Array<TextureComponent> cachedSprites = new Array<TextureComponent>(entities);
+        final Array<TextureAnimatorComponent> lookupAnimators = new Array<TextureAnimatorComponent>(entities);
+        final Array<TextureAnimatorComponent> cachedAnimators = new Array<TextureAnimatorComponent>(entities);
+
+        final TextureAnimatorComponent prototype = getAnimator();
+        final ObjectMap<Enum<?>, Animation<TextureRegion>> animationsByName = new ObjectMap<Enum<?>, Animation<TextureRegion>>();
+        for (PlayerAnimation name : PlayerAnimation.values()) {
+            animationsByName.put(name, prototype.animations[name.ordinal()]);
+        }
+        lookupEngine.addSystem(new KeyFrameLookupSystem(animationsByName));
+        cachedEngine.addSystem(new TextureAnimatorSystem());
+
+        final RandomXS128 random = new RandomXS128(1);
+        for (int i = 0; i < entities; ++i) {
+            final float startTime = random.nextFloat() * FRAME_DURATION * 8;
+            addEntity(lookupEngine, prototype, startTime, lookupSprites, lookupAnimators);
+            addEntity(cachedEngine, prototype, startTime, cachedSprites, cachedAnimators);
+        }
+
+        final AnimationSwitcher lookupSwitcher = new AnimationSwitcher();
+        final AnimationSwitcher cachedSwitcher = new AnimationSwitcher();
+        for (int i = 0; i < WARMUP_TICKS; ++i) {
+            lookupSwitcher.update(lookupAnimators);
+            lookupEngine.update(TICK_TIME);
+            cachedSwitcher.update(cachedAnimators);
+            cachedEngine.update(TICK_TIME);
+        }
+
+        long lookupNanos = 0;
+        long cachedNanos = 0;
+        int mismatches = 0;
+        for (int i = 0; i < ticks; ++i) {
+            lookupSwitcher.update(lookupAnimators);
+            long startTime = TimeUtils.nanoTime();
+            lookupEngine.update(TICK_TIME);
+            lookupNanos += TimeUtils.timeSinceNanos(startTime);
+
+            cachedSwitcher.update(cachedAnimators);
+            startTime = TimeUtils.nanoTime();
+            cachedEngine.update(TICK_TIME);
+            cachedNanos += TimeUtils.timeSinceNanos(startTime);
+
+            for (int j = 0; j < entities; ++j) {
+                if (lookupSprites.get(j).region != cachedSprites.get(j).region) {
+                    mismatches++;
+                }
+            }
+        }
+
+        Gdx.app.log(TAG, entities + " animated entities: lookup every frame " + lookupNanos / 1000000f / ticks
+                + " ms/tick, cached frames " + cachedNanos / 1000000f / ticks + " ms/tick, " + mismatches
+                + " mismatched frames");
+
+        Gdx.app.exit();
+    }
+
+    private TextureAnimatorComponent getAnimator() {
+        TextureAnimatorBuilder animatorBuilder = new TextureAnimatorBuilder(Assets.instance.playerAtlas);
+        animatorBuilder.addLoopAnimation(PlayerAnimation.IDLE, "player_idle", FRAME_DURATION);
+        animatorBuilder.addLoopAnimation(PlayerAnimation.WALKING, "player_walk", FRAME_DURATION);
+        animatorBuilder.addAnimation(PlayerAnimation.JUMPING, "player_jump", FRAME_DURATION);
+        return animatorBuilder.getAnimator();
+    }
+
+    // entities share the prototype's animations, regions found in the atlas are copies and would never match
+    private void addEntity(PooledEngine engine, TextureAnimatorComponent prototype, float startTime,
+                           Array<TextureComponent> sprites, Array<TextureAnimatorComponent> animators) {
+        TextureComponent sprite = new TextureComponent();
+        TextureAnimatorComponent animator = new TextureAnimatorComponent();
+        animator.animations = prototype.animations;
+        animator.currentAnimation = PlayerAnimation.WALKING;
+        animator.animationTime = startTime;
+
+        Entity entity = engine.createEntity();
+        entity.add(sprite);
+        entity.add(new TransformComponent());
+        entity.add(animator);
+        engine.addEntity(entity);
+
+        sprites.add(sprite);
+        animators.add(animator);
+    }
+
+    @Override
+    public void dispose() {
+        Assets.instance.dispose();
+    }
+
+    public static void main(String[] args) {
+        final int entities = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+        final int ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 600;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new AnimationBenchmark(entities, ticks), config);
+    }
+}
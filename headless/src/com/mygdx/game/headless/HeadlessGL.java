@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * No-op GL20 for the headless backend, so textures, atlases and tiled maps can be loaded without a context.
+ * <p>
+ * Shaders always compile and link and every created object gets a handle of its own, so sprite batches and caches
+ * can be created and drawn with. Draw calls, the vertices they submit and texture binds are counted, which is what
+ * the renderer's CPU cost depends on; indexed draws count their indices.
+ */
+public class HeadlessGL implements InvocationHandler {
+
+    private int nextHandle = 1;
+
+    private int drawCalls;
+    private long vertices;
+    private int textureBinds;
+
+    private HeadlessGL() {
+    }
+
+    /**
+     * @return the handler behind {@link Gdx#gl}, to read the recorded counts from
+     */
+    public static HeadlessGL install() {
+        HeadlessGL handler = new HeadlessGL();
+        GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class}, handler);
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        return handler;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        final String name = method.getName();
+        if (name.equals("glDrawElements") || name.equals("glDrawArrays")) {
+            drawCalls++;
+            // glDrawElements(mode, count, ...) and glDrawArrays(mode, first, count)
+            vertices += (Integer) args[name.equals("glDrawElements") ? 1 : 2];
+            return null;
+        }
+        if (name.equals("glBindTexture")) {
+            textureBinds++;
+            return null;
+        }
+        if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+            // compile and link status, active attribute and uniform counts are read this way
+            final int pname = (Integer) args[1];
+            final boolean status = pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS;
+            ((IntBuffer) args[2]).put(0, status ? 1 : 0);
+            return null;
+        }
+        if (name.equals("glGenTexture") || name.equals("glGenBuffer") || name.equals("glGenFramebuffer")
+                || name.equals("glGenRenderbuffer") || name.equals("glCreateShader")
+                || name.equals("glCreateProgram")) {
+            return nextHandle++;
+        }
+
+        Class<?> returnType = method.getReturnType();
+        if (returnType == int.class) return 0;
+        if (returnType == boolean.class) return false;
+        if (returnType == float.class) return 0f;
+        if (returnType == String.class) return "";
+        return null;
+    }
+
+    public void reset() {
+        drawCalls = 0;
+        vertices = 0;
+        textureBinds = 0;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    public long getVertices() {
+        return vertices;
+    }
+
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.utils.Assets;
+import com.mygdx.game.utils.BodyPrefabs;
+
+/**
+ * Usage: HeadlessLauncher [sessions] [threads] [ticks]
+ */
+public class HeadlessLauncher extends ApplicationAdapter {
+
+    public static final String TAG = HeadlessLauncher.class.getName();
+
+    private static final float TICK_TIME = 1 / 60f;
+
+    private final int sessionCount;
+    private final int threads;
+    private final int ticks;
+
+    public HeadlessLauncher(int sessionCount, int threads, int ticks) {
+        this.sessionCount = sessionCount;
+        this.threads = threads;
+        this.ticks = ticks;
+    }
+
+    @Override
+    public void create() {
+        HeadlessGL.install();
+        Assets.instance.init();
+        Box2D.init();
+        BodyPrefabs.init();
+
+        SimulationHost host = new SimulationHost(threads);
+
+        final long startTime = TimeUtils.nanoTime();
+        for (int i = 0; i < sessionCount; ++i) {
+            host.addSession(new SimulationSession(Assets.instance.testMap));
+        }
+        final float seconds = TimeUtils.timeSinceNanos(startTime) / 1000000000f;
+        Gdx.app.log(TAG, "Created " + sessionCount + " sessions in " + seconds + " s: "
+                + (sessionCount / seconds) + " sessions/s");
+
+        host.run(ticks, TICK_TIME);
+        host.dispose();
+
+        Gdx.app.exit();
+    }
+
+    @Override
+    public void dispose() {
+        BodyPrefabs.dispose();
+        Assets.instance.dispose();
+    }
+
+    public static void main(String[] args) {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : cores * 4;
+        final int threads = (args.length > 1) ? Integer.parseInt(args[1]) : cores;
+        final int ticks = (args.length > 2) ? Integer.parseInt(args[2]) : 3600;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new HeadlessLauncher(sessions, threads, ticks), config);
+    }
+}
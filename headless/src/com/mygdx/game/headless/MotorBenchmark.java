@@ -0,0 +1,207 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.CharacterComponent;
+import com.mygdx.game.components.MapPhysicsComponent;
+import com.mygdx.game.components.MotorComponent;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.listeners.BodyRemovalListener;
+import com.mygdx.game.listeners.FootSensorContactHandler;
+import com.mygdx.game.listeners.MapPhysicsCleanupListener;
+import com.mygdx.game.listeners.WorldContactListener;
+import com.mygdx.game.screens.GameScreen;
+import com.mygdx.game.systems.MapPhysicsSystem;
+import com.mygdx.game.systems.PhysicsSystem;
+import com.mygdx.game.systems.RenderingSystem;
+import com.mygdx.game.systems.TileCollisionSystem;
+import com.mygdx.game.utils.*;
+
+/**
+ * Compares Box2D characters with tile grid characters on the test map. Both are driven by the same walker
+ * controller through {@link CharacterMotor}.
+ * <p>
+ * Usage: MotorBenchmark [ticks]
+ */
+public class MotorBenchmark extends ApplicationAdapter {
+
+    public static final String TAG = MotorBenchmark.class.getName();
+
+    private static final float TICK_TIME = 1 / 60f;
+    private static final int WARMUP_TICKS = 120;
+    private static final int[] CHARACTER_COUNTS = {10, 100, 1000};
+
+    private static final float SPAWN_LEFT = 1f;
+    private static final float SPAWN_BOTTOM = 2.5f;
+    private static final int SPAWN_COLUMNS = 24;
+    private static final float SPAWN_SPACING_X = 0.6f;
+    private static final float SPAWN_SPACING_Y = 0.8f;
+
+    private final int ticks;
+
+    public MotorBenchmark(int ticks) {
+        this.ticks = ticks;
+    }
+
+    /**
+     * Walks back and forth, turning at walls and jumping now and then.
+     */
+    private static class WalkerSystem extends IteratingSystem {
+
+        private static final float WALK_SPEED = 1.5f;
+        private static final float JUMP_SPEED = 3f;
+        private static final float JUMP_CHANCE = 0.01f;
+
+        private final RandomXS128 random = new RandomXS128(1);
+
+        WalkerSystem() {
+            super(Family.all(MotorComponent.class, CharacterComponent.class).get());
+        }
+
+        @Override
+        protected void processEntity(Entity entity, float deltaTime) {
+            final CharacterMotor motor = Mappers.motor.get(entity).motor;
+            final CharacterComponent character = Mappers.character.get(entity);
+            final Vector2 velocity = motor.getVelocity();
+
+            if (!motor.isGrounded()) {
+                motor.setMaterial(SurfaceMaterial.CHARACTER_AIR);
+                return;
+            }
+            motor.setMaterial(SurfaceMaterial.CHARACTER_WALK);
+
+            // stopped by a wall since the last tick
+            if (Math.abs(velocity.x) < WALK_SPEED / 2) {
+                character.viewDirection = (character.viewDirection == Direction.LEFT) ? Direction.RIGHT : Direction.LEFT;
+            }
+            final float speed = (character.viewDirection == Direction.LEFT) ? -WALK_SPEED : WALK_SPEED;
+            final boolean jump = random.nextFloat() < JUMP_CHANCE;
+            motor.setVelocity(speed, jump ? JUMP_SPEED : velocity.y);
+        }
+    }
+
+    @Override
+    public void create() {
+        HeadlessGL.install();
+        Assets.instance.init();
+        Box2D.init();
+        BodyPrefabs.init();
+
+        for (int characters : CHARACTER_COUNTS) {
+            final float box2dMillis = runBox2d(characters);
+            final float tileMillis = runTiles(characters);
+            Gdx.app.log(TAG, characters + " characters: Box2D " + box2dMillis + " ms/tick, tiles " + tileMillis
+                    + " ms/tick");
+        }
+
+        Gdx.app.exit();
+    }
+
+    private float runBox2d(int characters) {
+        World world = new World(new Vector2(0, -9.8f), true);
+        WorldContactListener contactListener = new WorldContactListener();
+        FootSensorContactHandler footSensorContactHandler = new FootSensorContactHandler();
+        contactListener.register(FixtureType.FOOT_SENSOR, FixtureType.GROUND, footSensorContactHandler);
+        contactListener.register(FixtureType.FOOT_SENSOR, FixtureType.CHARACTER, footSensorContactHandler);
+        world.setContactListener(contactListener);
+        BodyPool bodyPool = new BodyPool(world);
+
+        PooledEngine engine = new PooledEngine();
+        engine.addSystem(new WalkerSystem());
+        engine.addSystem(new MapPhysicsSystem(world));
+        engine.addSystem(new PhysicsSystem(world, contactListener));
+        engine.addEntityListener(Family.all(PhysicsComponent.class).get(), new BodyRemovalListener(bodyPool));
+        engine.addEntityListener(Family.all(MapPhysicsComponent.class).get(), new MapPhysicsCleanupListener(world));
+
+        EntityBuilder.setEngine(engine);
+        engine.addEntity(EntityBuilder.getMapPhysics(Assets.instance.testMap, GameScreen.MAP_SCALE));
+
+        for (int i = 0; i < characters; ++i) {
+            engine.addEntity(EntityBuilder.getPlayer(bodyPool, spawnX(i), spawnY(i)));
+        }
+
+        final float millis = measure(engine);
+        engine.removeAllEntities();
+        world.dispose();
+        return millis;
+    }
+
+    private float runTiles(int characters) {
+        TileCollisionGrid grid = TiledMapUtils.generateTileCollisionGrid(Assets.instance.testMap, "ground",
+                GameScreen.MAP_SCALE / RenderingSystem.PIXEL_PER_UNIT);
+
+        PooledEngine engine = new PooledEngine();
+        engine.addSystem(new WalkerSystem());
+        engine.addSystem(new TileCollisionSystem(grid));
+
+        EntityBuilder.setEngine(engine);
+        for (int i = 0; i < characters; ++i) {
+            engine.addEntity(EntityBuilder.getTilePlayer(spawnX(i), spawnY(i)));
+        }
+
+        final float millis = measure(engine);
+        engine.removeAllEntities();
+        return millis;
+    }
+
+    // characters are spawned on a lattice so that no two bodies start out overlapping
+    private float spawnX(int index) {
+        return SPAWN_LEFT + (index % SPAWN_COLUMNS) * SPAWN_SPACING_X;
+    }
+
+    private float spawnY(int index) {
+        return SPAWN_BOTTOM + (index / SPAWN_COLUMNS) * SPAWN_SPACING_Y;
+    }
+
+    private float measure(PooledEngine engine) {
+        for (int i = 0; i < WARMUP_TICKS; ++i) {
+            engine.update(TICK_TIME);
+        }
+        final long startTime = TimeUtils.nanoTime();
+        for (int i = 0; i < ticks; ++i) {
+            engine.update(TICK_TIME);
+        }
+        return TimeUtils.timeSinceNanos(startTime) / 1000000f / ticks;
+    }
+
+    @Override
+    public void dispose() {
+        BodyPrefabs.dispose();
+        Assets.instance.dispose();
+    }
+
+    public static void main(String[] args) {
+        final int ticks = (args.length > 0) ? Integer.parseInt(args[0]) : 600;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new MotorBenchmark(ticks), config);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.MapPhysicsComponent;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.listeners.BodyRemovalListener;
+import com.mygdx.game.listeners.FootSensorContactHandler;
+import com.mygdx.game.listeners.WorldContactListener;
+import com.mygdx.game.physics.PhysicsRegions;
+import com.mygdx.game.screens.GameScreen;
+import com.mygdx.game.systems.*;
+import com.mygdx.game.utils.*;
+
+/**
+ * Steps the test map split into {@link PhysicsRegions} with many characters thrown across it and reports the tick
+ * rate. Run with a 1 x 1 grid on one thread for the single world baseline.
+ * <p>
+ * Usage: RegionBenchmark [characters] [columns] [rows] [threads] [ticks]
+ */
+public class RegionBenchmark extends ApplicationAdapter {
+
+    public static final String TAG = RegionBenchmark.class.getName();
+
+    private static final float TICK_TIME = 1 / 60f;
+
+    private final int characters;
+    private final int columns;
+    private final int rows;
+    private final int threads;
+    private final int ticks;
+
+    public RegionBenchmark(int characters, int columns, int rows, int threads, int ticks) {
+        this.characters = characters;
+        this.columns = columns;
+        this.rows = rows;
+        this.threads = threads;
+        this.ticks = ticks;
+    }
+
+    @Override
+    public void create() {
+        HeadlessGL.install();
+        Assets.instance.init();
+        Box2D.init();
+        BodyPrefabs.init();
+
+        WorldContactListener handlers = new WorldContactListener();
+        FootSensorContactHandler footSensorContactHandler = new FootSensorContactHandler();
+        handlers.register(FixtureType.FOOT_SENSOR, FixtureType.GROUND, footSensorContactHandler);
+        handlers.register(FixtureType.FOOT_SENSOR, FixtureType.CHARACTER, footSensorContactHandler);
+
+        PooledEngine engine = new PooledEngine();
+        EntityBuilder.setEngine(engine);
+        Entity map = EntityBuilder.getMapPhysics(Assets.instance.testMap, GameScreen.MAP_SCALE);
+        MapPhysicsComponent mapPhysics = Mappers.mapPhysics.get(map);
+
+        Rectangle area = new Rectangle(mapPhysics.originX, mapPhysics.originY,
+                mapPhysics.columns * mapPhysics.chunkSize, mapPhysics.rows * mapPhysics.chunkSize);
+        PhysicsRegions regions = new PhysicsRegions(new Vector2(0, -9.8f), area, columns, rows, threads, handlers);
+
+        engine.addSystem(new MapPhysicsSystem(regions));
+        engine.addSystem(new PhysicsSystem(regions));
+        engine.addSystem(new TextureAnimatorSystem());
+        engine.addSystem(new CharacterSystem());
+        engine.addSystem(new PlayerSystem());
+
+        Family physicsFamily = Family.all(PhysicsComponent.class).get();
+        engine.addEntityListener(physicsFamily, regions);
+        engine.addEntityListener(physicsFamily, new BodyRemovalListener(regions.getBodyPools()));
+        engine.addEntity(map);
+
+        MathUtils.random.setSeed(1);
+        for (int i = 0; i < characters; ++i) {
+            final float x = area.x + MathUtils.random(0.5f, area.width - 0.5f);
+            final float y = area.y + area.height - MathUtils.random(0.5f, 1.5f);
+            Entity player = EntityBuilder.getPlayer(regions.getRegion(x, y).bodyPool, x, y);
+            Mappers.physics.get(player).body.setLinearVelocity(MathUtils.random(-4f, 4f), MathUtils.random(0f, 2f));
+            engine.addEntity(player);
+        }
+
+        final long startTime = TimeUtils.nanoTime();
+        for (int i = 0; i < ticks; ++i) {
+            engine.update(TICK_TIME);
+        }
+        final float seconds = TimeUtils.timeSinceNanos(startTime) / 1000000000f;
+
+        Gdx.app.log(TAG, characters + " characters in " + columns + " x " + rows + " regions on " + threads
+                + " threads: " + (ticks / seconds) + " ticks/s, " + regions.getHandoffCount() + " handoffs, "
+                + regions.getGhostCount() + " ghosts, " + mapPhysics.liveChunks.size + " of " + mapPhysics.chunks.length
+                + " map chunks live");
+
+        engine.removeAllEntities();
+        regions.dispose();
+        Gdx.app.exit();
+    }
+
+    @Override
+    public void dispose() {
+        BodyPrefabs.dispose();
+        Assets.instance.dispose();
+    }
+
+    public static void main(String[] args) {
+        final int characters = (args.length > 0) ? Integer.parseInt(args[0]) : 400;
+        final int columns = (args.length > 1) ? Integer.parseInt(args[1]) : 2;
+        final int rows = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+        final int threads = (args.length > 3) ? Integer.parseInt(args[3]) : columns * rows;
+        final int ticks = (args.length > 4) ? Integer.parseInt(args[4]) : 600;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new RegionBenchmark(characters, columns, rows, threads, ticks), config);
+    }
+}
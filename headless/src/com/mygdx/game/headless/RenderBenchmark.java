@@ -0,0 +1,263 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.TextureComponent;
+import com.mygdx.game.components.TiledMapComponent;
+import com.mygdx.game.components.TransformComponent;
+import com.mygdx.game.listeners.TiledMapCleanupListener;
+import com.mygdx.game.screens.GameScreen;
+import com.mygdx.game.systems.RenderingSystem;
+import com.mygdx.game.systems.TiledMapRenderingSystem;
+import com.mygdx.game.utils.Assets;
+import com.mygdx.game.utils.EntityBuilder;
+import com.mygdx.game.utils.VersionedCamera;
+
+import java.util.Arrays;
+
+/**
+ * Measures the CPU cost of {@link TiledMapRenderingSystem} and {@link RenderingSystem} without a GPU, by drawing the
+ * test map and a lattice of sprites into {@link HeadlessGL} along scripted camera paths.
+ * <p>
+ * Every path logs the CPU time per frame and the draw calls, vertices and texture binds the frames issued, so
+ * renderer changes can be compared on any machine. With a file name every frame is written there as CSV as well.
+ * <p>
+ * Usage: RenderBenchmark [frames] [sprites] [csv file]
+ */
+public class RenderBenchmark extends ApplicationAdapter {
+
+    public static final String TAG = RenderBenchmark.class.getName();
+
+    private static final float FRAME_TIME = 1 / 60f;
+    private static final int WARMUP_FRAMES = 120;
+
+    private static final float SPRITE_SPACING_X = 0.6f;
+    private static final float SPRITE_SPACING_Y = 0.8f;
+
+    private final int frames;
+    private final int sprites;
+    private final String csvFile;
+
+    private HeadlessGL gl;
+    private SpriteBatch batch;
+    private VersionedCamera camera;
+    private PooledEngine engine;
+    private RenderingSystem renderingSystem;
+    private float mapWidth;
+    private float mapHeight;
+
+    public RenderBenchmark(int frames, int sprites, String csvFile) {
+        this.frames = frames;
+        this.sprites = sprites;
+        this.csvFile = csvFile;
+    }
+
+    private enum CameraPath {
+        /** holds still, the best case for everything cached per camera change */
+        STATIC {
+            @Override
+            void apply(OrthographicCameraState state, float progress, float mapWidth, float mapHeight) {
+                state.set(mapWidth / 2, mapHeight / 2, 1f);
+            }
+        },
+        /** scrolls along the map from one end to the other */
+        PAN {
+            @Override
+            void apply(OrthographicCameraState state, float progress, float mapWidth, float mapHeight) {
+                final float halfWidth = GameScreen.SCENE_WIDTH / 2;
+                state.set(MathUtils.lerp(halfWidth, mapWidth - halfWidth, progress), GameScreen.SCENE_HEIGHT / 2, 1f);
+            }
+        },
+        /** zooms in and out over the middle of the map, up to about the whole map in view */
+        ZOOM {
+            @Override
+            void apply(OrthographicCameraState state, float progress, float mapWidth, float mapHeight) {
+                final float maxZoom = Math.min(mapWidth / GameScreen.SCENE_WIDTH, mapHeight / GameScreen.SCENE_HEIGHT);
+                final float zoom = MathUtils.lerp(0.5f, maxZoom, (1 - MathUtils.cos(progress * MathUtils.PI2)) / 2);
+                state.set(mapWidth / 2, mapHeight / 2, zoom);
+            }
+        },
+        /** circles around the middle of the map like a camera following a running character */
+        ORBIT {
+            @Override
+            void apply(OrthographicCameraState state, float progress, float mapWidth, float mapHeight) {
+                final float radius = Math.min(mapWidth, mapHeight) / 4;
+                final float angle = progress * MathUtils.PI2 * 2;
+                state.set(mapWidth / 2 + MathUtils.cos(angle) * radius, mapHeight / 2 + MathUtils.sin(angle) * radius,
+                        1f);
+            }
+        };
+
+        abstract void apply(OrthographicCameraState state, float progress, float mapWidth, float mapHeight);
+    }
+
+    private static class OrthographicCameraState {
+        float x;
+        float y;
+        float zoom;
+
+        void set(float x, float y, float zoom) {
+            this.x = x;
+            this.y = y;
+            this.zoom = zoom;
+        }
+    }
+
+    @Override
+    public void create() {
+        gl = HeadlessGL.install();
+        Assets.instance.init();
+
+        batch = new SpriteBatch();
+        camera = new VersionedCamera();
+        camera.viewportWidth = GameScreen.SCENE_WIDTH;
+        camera.viewportHeight = GameScreen.SCENE_HEIGHT;
+
+        engine = new PooledEngine();
+        renderingSystem = new RenderingSystem(batch, camera);
+        engine.addSystem(renderingSystem);
+        engine.addSystem(new TiledMapRenderingSystem(camera));
+        engine.addEntityListener(Family.all(TiledMapComponent.class).get(), new TiledMapCleanupListener());
+
+        EntityBuilder.setEngine(engine);
+        engine.addEntity(EntityBuilder.getMapView(Assets.instance.testMap, GameScreen.MAP_SCALE, batch));
+        measureMap();
+        addSprites();
+
+        final StringBuilder csv = new StringBuilder("path,frame,cpu ms,draw calls,vertices,texture binds,sprites\n");
+        for (CameraPath path : CameraPath.values()) {
+            run(path, csv);
+        }
+        if (csvFile != null) {
+            new FileHandle(csvFile).writeString(csv.toString(), false);
+            Gdx.app.log(TAG, "Frames written to " + csvFile);
+        }
+
+        Gdx.app.exit();
+    }
+
+    private void measureMap() {
+        final MapProperties properties = Assets.instance.testMap.getProperties();
+        final float scale = GameScreen.MAP_SCALE / RenderingSystem.PIXEL_PER_UNIT;
+        mapWidth = properties.get("width", Integer.class) * properties.get("tilewidth", Integer.class) * scale;
+        mapHeight = properties.get("height", Integer.class) * properties.get("tileheight", Integer.class) * scale;
+    }
+
+    // sprites cover the map on a lattice, cycling through the player atlas regions on two layers
+    private void addSprites() {
+        final Array<TextureAtlas.AtlasRegion> regions = Assets.instance.playerAtlas.getRegions();
+        final int columns = Math.max(1, (int) (mapWidth / SPRITE_SPACING_X));
+
+        for (int i = 0; i < sprites; ++i) {
+            Entity entity = engine.createEntity();
+            TextureComponent sprite = engine.createComponent(TextureComponent.class);
+            TransformComponent transform = engine.createComponent(TransformComponent.class);
+
+            sprite.region = regions.get(i % regions.size);
+            sprite.layer = i % 2;
+            sprite.flipX = i % 3 == 0;
+            transform.position.set((i % columns + 0.5f) * SPRITE_SPACING_X,
+                    ((i / columns) * SPRITE_SPACING_Y) % mapHeight + SPRITE_SPACING_Y / 2);
+            transform.scale.set(0.5f, 0.5f);
+
+            entity.add(sprite);
+            entity.add(transform);
+            engine.addEntity(entity);
+        }
+    }
+
+    private void run(CameraPath path, StringBuilder csv) {
+        final OrthographicCameraState state = new OrthographicCameraState();
+        final float[] cpuMillis = new float[frames];
+        long drawCalls = 0;
+        long vertices = 0;
+        long textureBinds = 0;
+        long drawnSprites = 0;
+
+        for (int i = 0; i < WARMUP_FRAMES; ++i) {
+            render(path, state, (float) i / WARMUP_FRAMES);
+        }
+        for (int i = 0; i < frames; ++i) {
+            gl.reset();
+            final long startTime = TimeUtils.nanoTime();
+            render(path, state, (float) i / frames);
+            cpuMillis[i] = TimeUtils.timeSinceNanos(startTime) / 1000000f;
+
+            drawCalls += gl.getDrawCalls();
+            vertices += gl.getVertices();
+            textureBinds += gl.getTextureBinds();
+            drawnSprites += renderingSystem.getDrawnCount();
+            csv.append(path).append(',').append(i).append(',').append(cpuMillis[i]).append(',')
+                    .append(gl.getDrawCalls()).append(',').append(gl.getVertices()).append(',')
+                    .append(gl.getTextureBinds()).append(',').append(renderingSystem.getDrawnCount()).append('\n');
+        }
+
+        Arrays.sort(cpuMillis);
+        float totalMillis = 0;
+        for (float millis : cpuMillis) {
+            totalMillis += millis;
+        }
+        Gdx.app.log(TAG, path + ": cpu " + totalMillis / frames + " ms/frame, p50 " + percentile(cpuMillis, 0.5f)
+                + " p95 " + percentile(cpuMillis, 0.95f) + " max " + cpuMillis[frames - 1]
+                + " | per frame " + (float) drawCalls / frames + " draw calls, " + (float) vertices / frames
+                + " vertices, " + (float) textureBinds / frames + " texture binds, " + (float) drawnSprites / frames
+                + " of " + sprites + " sprites");
+    }
+
+    private void render(CameraPath path, OrthographicCameraState state, float progress) {
+        path.apply(state, progress, mapWidth, mapHeight);
+        camera.position.set(state.x, state.y, 0);
+        camera.zoom = state.zoom;
+        camera.update();
+        engine.update(FRAME_TIME);
+    }
+
+    private static float percentile(float[] sorted, float percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (percentile * sorted.length))];
+    }
+
+    @Override
+    public void dispose() {
+        engine.removeAllEntities();
+        batch.dispose();
+        Assets.instance.dispose();
+    }
+
+    public static void main(String[] args) {
+        final int frames = (args.length > 0) ? Integer.parseInt(args[0]) : 600;
+        final int sprites = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+        final String csvFile = (args.length > 2) ? args[2] : null;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new RenderBenchmark(frames, sprites, csvFile), config);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs many {@link SimulationSession}s in parallel on a fixed worker pool and reports the throughput.
+ */
+public class SimulationHost implements Disposable {
+
+    public static final String TAG = SimulationHost.class.getName();
+
+    private final ExecutorService executor;
+    private final int threads;
+    private final Array<SimulationSession> sessions = new Array<SimulationSession>();
+
+    private float sessionsPerSecond;
+    private float ticksPerSecond;
+
+    public SimulationHost(int threads) {
+        this.threads = threads;
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    public void addSession(SimulationSession session) {
+        sessions.add(session);
+    }
+
+    public void run(final int ticks, final float deltaTime) {
+        final CountDownLatch finished = new CountDownLatch(sessions.size);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        final long startTime = TimeUtils.nanoTime();
+        for (int i = 0; i < sessions.size; ++i) {
+            final SimulationSession session = sessions.get(i);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int tick = 0; tick < ticks && failure.get() == null; ++tick) {
+                            session.tick(deltaTime);
+                        }
+                    } catch (Throwable throwable) {
+                        failure.compareAndSet(null, throwable);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while waiting for sessions", e);
+        }
+        if (failure.get() != null) {
+            throw new GdxRuntimeException("Session failed", failure.get());
+        }
+
+        final float seconds = TimeUtils.timeSinceNanos(startTime) / 1000000000f;
+        sessionsPerSecond = sessions.size / seconds;
+        ticksPerSecond = ((long) sessions.size * ticks) / seconds;
+
+        Gdx.app.log(TAG, sessions.size + " sessions x " + ticks + " ticks on " + threads + " threads in "
+                + seconds + " s: " + sessionsPerSecond + " sessions/s, " + ticksPerSecond + " ticks/s");
+    }
+
+    public float getSessionsPerSecond() {
+        return sessionsPerSecond;
+    }
+
+    public float getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public Array<SimulationSession> getSessions() {
+        return sessions;
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdown();
+        for (int i = 0; i < sessions.size; ++i) {
+            sessions.get(i).dispose();
+        }
+        sessions.clear();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Disposable;
+import com.mygdx.game.components.MapPhysicsComponent;
+import com.mygdx.game.components.PhysicsComponent;
+import com.mygdx.game.listeners.BodyRemovalListener;
+import com.mygdx.game.listeners.FootSensorContactHandler;
+import com.mygdx.game.listeners.MapPhysicsCleanupListener;
+import com.mygdx.game.listeners.WorldContactListener;
+import com.mygdx.game.screens.GameScreen;
+import com.mygdx.game.systems.*;
+import com.mygdx.game.utils.BodyPool;
+import com.mygdx.game.utils.EntityBuilder;
+import com.mygdx.game.utils.FixtureType;
+import com.mygdx.game.utils.TiledMapUtils;
+
+/**
+ * One independent game world: its own Box2D world, entity engine and simulation systems, without rendering.
+ * <p>
+ * Sessions must be created one at a time because {@link EntityBuilder} and the shared Box2D shapes are static,
+ * once created a session can be ticked from any thread as long as only one thread ticks it at a time.
+ */
+public class SimulationSession implements Disposable {
+
+    private final World world;
+    private final BodyPool bodyPool;
+    private final WorldContactListener contactListener;
+    private final FootSensorContactHandler footSensorContactHandler = new FootSensorContactHandler();
+    private final PooledEngine engine;
+    private final BodyRemovalListener bodyRemovalListener;
+    private final MapPhysicsCleanupListener mapPhysicsCleanupListener;
+
+    private long ticks;
+
+    public SimulationSession(TiledMap map) {
+        world = new World(new Vector2(0, -9.8f), true);
+        contactListener = new WorldContactListener();
+        contactListener.register(FixtureType.FOOT_SENSOR, FixtureType.GROUND, footSensorContactHandler);
+        contactListener.register(FixtureType.FOOT_SENSOR, FixtureType.CHARACTER, footSensorContactHandler);
+        world.setContactListener(contactListener);
+        bodyPool = new BodyPool(world);
+
+        engine = new PooledEngine();
+        engine.addSystem(new OffscreenPhysicsSystem());
+        engine.addSystem(new MapPhysicsSystem(world));
+        engine.addSystem(new PhysicsSystem(world, contactListener));
+        engine.addSystem(new PhysicsQuerySystem(world));
+        engine.addSystem(new CameraHelperSystem());
+        engine.addSystem(new TextureAnimatorSystem());
+        engine.addSystem(new CharacterSystem());
+        engine.addSystem(new PlayerSystem());
+
+        bodyRemovalListener = new BodyRemovalListener(bodyPool);
+        mapPhysicsCleanupListener = new MapPhysicsCleanupListener(world);
+        engine.addEntityListener(Family.all(PhysicsComponent.class).get(), bodyRemovalListener);
+        engine.addEntityListener(Family.all(MapPhysicsComponent.class).get(), mapPhysicsCleanupListener);
+
+        EntityBuilder.setEngine(engine);
+
+        OrthographicCamera camera = new OrthographicCamera(GameScreen.SCENE_WIDTH, GameScreen.SCENE_HEIGHT);
+        Entity mapPhysics = EntityBuilder.getMapPhysics(map, GameScreen.MAP_SCALE);
+        Entity player = EntityBuilder.getPlayer(bodyPool, GameScreen.PLAYER_SPAWN_X, GameScreen.PLAYER_SPAWN_Y);
+        Entity cameraHelper = EntityBuilder.getCameraHelper(camera, player);
+
+        TiledMapUtils.setCameraHelperBounds(cameraHelper, map, GameScreen.MAP_SCALE / RenderingSystem.PIXEL_PER_UNIT);
+
+        engine.addEntity(player);
+        engine.addEntity(cameraHelper);
+        engine.addEntity(mapPhysics);
+    }
+
+    /**
+     * Spawns another player character, must not be called while another session is being created.
+     */
+    public Entity addPlayer(float x, float y) {
+        EntityBuilder.setEngine(engine);
+        Entity player = EntityBuilder.getPlayer(bodyPool, x, y);
+        engine.addEntity(player);
+        return player;
+    }
+
+    public void tick(float deltaTime) {
+        engine.update(deltaTime);
+        ticks++;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public BodyPool getBodyPool() {
+        return bodyPool;
+    }
+
+    public PooledEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public void dispose() {
+        engine.removeAllEntities();
+        engine.removeEntityListener(bodyRemovalListener);
+        engine.removeEntityListener(mapPhysicsCleanupListener);
+        bodyPool.clear();
+        world.dispose();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *    Copyright 2017 Surasek Nusati <surasek@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.mygdx.game.headless;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.mygdx.game.components.PlayerComponent;
+import com.mygdx.game.screens.GameScreen;
+import com.mygdx.game.utils.*;
+
+/**
+ * Measures {@link WorldSnapshot} capture and restore on the test map and checks that re-simulating from a restored
+ * snapshot reproduces the original run, including the ground contacts the contact listener reports afterwards.
+ * <p>
+ * Usage: SnapshotBenchmark [characters] [iterations]
+ */
+public class SnapshotBenchmark extends ApplicationAdapter {
+
+    public static final String TAG = SnapshotBenchmark.class.getName();
+
+    private static final float TICK_TIME = 1 / 60f;
+    private static final int SETTLE_TICKS = 120;
+    private static final int REPLAY_TICKS = 60;
+
+    private final int characters;
+    private final int iterations;
+
+    public SnapshotBenchmark(int characters, int iterations) {
+        this.characters = characters;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void create() {
+        HeadlessGL.install();
+        Assets.instance.init();
+        Box2D.init();
+        BodyPrefabs.init();
+
+        SimulationSession session = new SimulationSession(Assets.instance.testMap);
+        for (int i = 1; i < characters; ++i) {
+            session.addPlayer(GameScreen.PLAYER_SPAWN_X + (i % 16) * 0.5f, GameScreen.PLAYER_SPAWN_Y + (i / 16) * 0.8f);
+        }
+        for (int i = 0; i < SETTLE_TICKS; ++i) {
+            session.tick(TICK_TIME);
+        }
+
+        WorldSnapshot snapshot = new WorldSnapshot();
+        for (int i = 0; i < iterations; ++i) {
+            snapshot.capture(session.getEngine());
+            snapshot.restore();
+        }
+
+        long startTime = TimeUtils.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            snapshot.capture(session.getEngine());
+        }
+        final float captureMicros = TimeUtils.timeSinceNanos(startTime) / 1000f / iterations;
+
+        startTime = TimeUtils.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            snapshot.restore();
+        }
+        final float restoreMicros = TimeUtils.timeSinceNanos(startTime) / 1000f / iterations;
+
+        Gdx.app.log(TAG, snapshot.getEntityCount() + " entities, " + snapshot.getSize() + " bytes: capture "
+                + captureMicros + " us, restore " + restoreMicros + " us");
+
+        checkReplay(session, snapshot);
+
+        session.dispose();
+        Gdx.app.exit();
+    }
+
+    private void checkReplay(SimulationSession session, WorldSnapshot snapshot) {
+        final Entity entity = session.getEngine().getEntitiesFor(
+                Family.all(PlayerComponent.class).get()).first();
+
+        snapshot.capture(session.getEngine());
+        for (int i = 0; i < REPLAY_TICKS; ++i) {
+            session.tick(TICK_TIME);
+        }
+        final float expectedX = Mappers.transform.get(entity).position.x;
+        final float expectedY = Mappers.transform.get(entity).position.y;
+        final int expectedContacts = Mappers.character.get(entity).groundContacts.getCount();
+
+        snapshot.restore();
+        for (int i = 0; i < REPLAY_TICKS; ++i) {
+            session.tick(TICK_TIME);
+        }
+        final float errorX = Math.abs(Mappers.transform.get(entity).position.x - expectedX);
+        final float errorY = Math.abs(Mappers.transform.get(entity).position.y - expectedY);
+        final int contacts = Mappers.character.get(entity).groundContacts.getCount();
+
+        Gdx.app.log(TAG, "Replay of " + REPLAY_TICKS + " ticks diverged by (" + errorX + ", " + errorY + "), "
+                + contacts + " ground contacts, expected " + expectedContacts);
+    }
+
+    @Override
+    public void dispose() {
+        BodyPrefabs.dispose();
+        Assets.instance.dispose();
+    }
+
+    public static void main(String[] args) {
+        final int characters = (args.length > 0) ? Integer.parseInt(args[0]) : 32;
+        final int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new SnapshotBenchmark(characters, iterations), config);
+    }
+}